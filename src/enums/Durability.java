@@ -0,0 +1,19 @@
+package enums;
+
+/**
+ * Гарантия сохранности записи на диск.
+ */
+public enum Durability {
+    /**
+     * Без fsync: данные остаются в кэше ОС.
+     */
+    NONE,
+    /**
+     * fsync после каждой групповой записи.
+     */
+    BATCH,
+    /**
+     * Каждая операция записывается и синхронизируется с диском до возврата из метода.
+     */
+    OP
+}
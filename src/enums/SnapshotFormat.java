@@ -0,0 +1,13 @@
+package enums;
+
+/**
+ * Формат файла снимка FileBackedTaskManager.
+ */
+public enum SnapshotFormat {
+    CSV,
+    /**
+     * CSV, сжатый GZIP.
+     */
+    CSV_GZIP,
+    BINARY
+}
@@ -0,0 +1,226 @@
+package manager;
+
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * История просмотров на массивах: задачи лежат в ячейках, порядок просмотров задают массивы prev/next
+ * с номерами ячеек, а индекс id - ячейка устроен как хеш-таблица с открытой адресацией на примитивных массивах.
+ * Освобожденные ячейки собираются в список свободных и используются повторно, повторный просмотр
+ * переставляет ячейку в конец без выделения памяти. Память выделяется только при росте массивов.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeHead = NONE;
+    private int allocated;
+    private int size;
+
+    private long[] keys;
+    private int[] slots;
+    private int mask;
+
+    public ArrayHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    /**
+     * @param capacity наибольшее количество задач в истории; при переполнении вытесняется самый ранний просмотр
+     */
+    public ArrayHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Некорректная емкость истории: " + capacity);
+        }
+        this.capacity = capacity;
+        int cells = Math.min(capacity, INITIAL_CAPACITY);
+        tasks = new Task[cells];
+        prev = new int[cells];
+        next = new int[cells];
+        keys = new long[indexLength(cells)];
+        slots = new int[keys.length];
+        Arrays.fill(slots, NONE);
+        mask = keys.length - 1;
+    }
+
+    private static int indexLength(int cells) {
+        return Integer.highestOneBit(Math.max(cells, 2) * 2 - 1) << 1;
+    }
+
+    /**
+     * @param task
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long id = task.getId();
+        int slot = find(id);
+        if (slot != NONE) {
+            unlink(slot);
+            tasks[slot] = task;
+            linkLast(slot);
+            return;
+        }
+        if (size == capacity) {
+            remove(tasks[head].getId());
+        }
+        slot = allocate();
+        tasks[slot] = task;
+        insert(id, slot);
+        linkLast(slot);
+        size++;
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        int slot = delete(id);
+        if (slot == NONE) {
+            return;
+        }
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * @return List<Task>
+     */
+    @Override
+    public List<Task> getHistory() {
+        List<Task> listTasks = new ArrayList<>(size);
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            listTasks.add(tasks[slot]);
+        }
+        return listTasks;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (allocated == tasks.length) {
+            grow();
+        }
+        return allocated++;
+    }
+
+    private void grow() {
+        int cells = (int) Math.min((long) tasks.length * 2, Math.max(capacity, tasks.length + 1));
+        tasks = Arrays.copyOf(tasks, cells);
+        prev = Arrays.copyOf(prev, cells);
+        next = Arrays.copyOf(next, cells);
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[indexLength(cells)];
+        slots = new int[keys.length];
+        Arrays.fill(slots, NONE);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != NONE) {
+                insert(oldKeys[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long id) {
+        for (int i = hash(id) & mask; slots[i] != NONE; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return slots[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void insert(long id, int slot) {
+        int i = hash(id) & mask;
+        while (slots[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        slots[i] = slot;
+    }
+
+    /**
+     * Удаляет id из индекса со сдвигом следующих записей цепочки назад, без пометок об удалении.
+     *
+     * @return ячейка задачи или {@link #NONE}, если id нет в индексе
+     */
+    private int delete(long id) {
+        int i = hash(id) & mask;
+        while (slots[i] != NONE && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        int slot = slots[i];
+        if (slot == NONE) {
+            return NONE;
+        }
+        slots[i] = NONE;
+        for (int j = (i + 1) & mask; slots[j] != NONE; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                slots[i] = slots[j];
+                slots[j] = NONE;
+                i = j;
+            }
+        }
+        return slot;
+    }
+}
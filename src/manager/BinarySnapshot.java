@@ -0,0 +1,256 @@
+package manager;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат снимка: заголовок, таблица записей фиксированной длины и куча строк.
+ * <pre>
+ * заголовок: magic (4) | версия (4) | количество записей (4) | CRC32C записей и кучи (4)
+ * запись:    id (8) | тип (1) | статус (1) | резерв (2) | epicId (8)
+ *            начало: секунды (8), наносекунды (4) | окончание: секунды (8), наносекунды (4)
+ *            длительность в минутах (8) | имя: смещение (4), длина (4) | описание: смещение (4), длина (4)
+ * куча:      строки в UTF-8, смещения отсчитываются от начала кучи
+ * история:   количество и id истории просмотров в varint | длина раздела истории (4)
+ * </pre>
+ * Отсутствующие значения кодируются: статус и тип -1, время {@link Long#MIN_VALUE}, длина строки -1.
+ * Файл читается через {@link FileChannel#map}, описания декодируются из отображения при обращении.
+ */
+class BinarySnapshot {
+    static final int MAGIC = 0x4B42534E; // "KBSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 68;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * @param tasks   задачи, эпики и подзадачи в порядке записи
+     * @param history id истории просмотров от самого раннего просмотра
+     */
+    record Content(List<Task> tasks, List<Long> history) {
+    }
+
+    /**
+     * @param file
+     * @return true, если файл начинается с сигнатуры двоичного снимка
+     */
+    static boolean isBinary(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] magic = in.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static byte[] write(InMemoryTaskManager.Snapshot state) {
+        List<Task> all = new ArrayList<>(state.size());
+        all.addAll(state.tasks());
+        all.addAll(state.epics());
+        all.addAll(state.subTasks());
+        ByteBuffer records = ByteBuffer.allocate(HEADER_SIZE + all.size() * RECORD_SIZE);
+        ByteArrayOutputStream heap = new ByteArrayOutputStream();
+        records.putInt(MAGIC).putInt(VERSION).putInt(all.size()).putInt(0);
+        for (Task task : all) {
+            TaskType type = task instanceof SubTask ? TaskType.SUBTASK
+                    : task instanceof Epic ? TaskType.EPIC : TaskType.TASK;
+            records.putLong(task.getId())
+                    .put((byte) type.ordinal())
+                    .put((byte) (task.getStatus() == null ? -1 : task.getStatus().ordinal()))
+                    .putShort((short) 0)
+                    .putLong(task instanceof SubTask subTask ? subTask.getEpicId() : NONE);
+            putDateTime(records, task.getStartTime());
+            putDateTime(records, task instanceof Epic ? task.getEndTime() : null);
+            records.putLong(task.getDuration().toMinutes());
+            putString(records, heap, task.getName());
+            putString(records, heap, task.getDescription());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(records.capacity() + heap.size());
+        out.write(records.array(), 0, records.position());
+        out.writeBytes(heap.toByteArray());
+        List<Long> history = state.history();
+        int historyStart = out.size();
+        putVarLong(out, history.size());
+        history.forEach(historyId -> putVarLong(out, historyId));
+        int historyLength = out.size() - historyStart;
+        out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(historyLength).array());
+        byte[] snapshot = out.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(snapshot, HEADER_SIZE, snapshot.length - HEADER_SIZE);
+        ByteBuffer.wrap(snapshot).putInt(12, (int) crc.getValue());
+        return snapshot;
+    }
+
+    private static void putVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void putDateTime(ByteBuffer records, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            records.putLong(NONE).putInt(0);
+        } else {
+            records.putLong(dateTime.toEpochSecond(ZoneOffset.UTC)).putInt(dateTime.getNano());
+        }
+    }
+
+    private static void putString(ByteBuffer records, ByteArrayOutputStream heap, String value) {
+        if (value == null) {
+            records.putInt(0).putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt(heap.size()).putInt(bytes.length);
+        heap.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Отображает файл в память и восстанавливает задачи. Имена декодируются сразу,
+     * описания - при каждом обращении к {@link Task#getDescription()}.
+     *
+     * @param file
+     * @return задачи, эпики и подзадачи в порядке записи и история просмотров
+     */
+    static Content read(File file) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Размер снимка превышает допустимый: " + file.getAbsolutePath(), null);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении данных с файла: " + file.getAbsolutePath(), e);
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new ManagerSaveException("Формат двоичного снимка не соответствует: " + file.getAbsolutePath(), null);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия двоичного снимка " + version
+                    + ": " + file.getAbsolutePath(), null);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(12)) {
+            throw new ManagerSaveException("Снимок поврежден: " + file.getAbsolutePath()
+                    + " . Контрольная сумма не совпадает", null);
+        }
+        int count = buffer.getInt(8);
+        long heapStart = HEADER_SIZE + (long) count * RECORD_SIZE;
+        if (count < 0 || heapStart > buffer.limit()) {
+            throw new ManagerSaveException("Снимок поврежден: " + file.getAbsolutePath(), null);
+        }
+        List<Long> history = readHistory(buffer, file);
+        List<Task> restoredTasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                restoredTasks.add(readRecord(buffer, HEADER_SIZE + i * RECORD_SIZE, (int) heapStart));
+            } catch (RuntimeException e) {
+                throw new ManagerSaveException("При чтении файла: " + file.getAbsolutePath()
+                        + " . " + "Возникла ошибка при разборе записи № " + (i + 1), e);
+            }
+        }
+        return new Content(restoredTasks, history);
+    }
+
+    private static List<Long> readHistory(ByteBuffer buffer, File file) {
+        int historyLength = buffer.getInt(buffer.limit() - Integer.BYTES);
+        int position = buffer.limit() - Integer.BYTES - historyLength;
+        if (historyLength <= 0 || position < HEADER_SIZE) {
+            throw new ManagerSaveException("Снимок поврежден: " + file.getAbsolutePath(), null);
+        }
+        ByteBuffer section = buffer.slice(position, historyLength);
+        long size = getVarLong(section);
+        List<Long> history = new ArrayList<>((int) Math.min(size, historyLength));
+        for (long i = 0; i < size; i++) {
+            history.add(getVarLong(section));
+        }
+        return history;
+    }
+
+    private static long getVarLong(ByteBuffer section) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = section.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Некорректное число varint в разделе истории");
+    }
+
+    private static Task readRecord(ByteBuffer buffer, int offset, int heapStart) {
+        long id = buffer.getLong(offset);
+        TaskType type = TYPES[buffer.get(offset + 8)];
+        byte statusOrdinal = buffer.get(offset + 9);
+        TaskStatus status = statusOrdinal < 0 ? null : STATUSES[statusOrdinal];
+        long epicId = buffer.getLong(offset + 12);
+        LocalDateTime startTime = getDateTime(buffer, offset + 20);
+        LocalDateTime endTime = getDateTime(buffer, offset + 32);
+        Duration duration = Duration.ofMinutes(buffer.getLong(offset + 44));
+        String name = getString(buffer, heapStart, buffer.getInt(offset + 52), buffer.getInt(offset + 56));
+        int descriptionOffset = buffer.getInt(offset + 60);
+        int descriptionLength = buffer.getInt(offset + 64);
+        checkString(buffer, heapStart, descriptionOffset, descriptionLength);
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, null, status, startTime, duration);
+            case EPIC -> new Epic(id, name, null, status, startTime, endTime, duration);
+            case SUBTASK -> new SubTask(id, epicId, name, null, status, startTime, duration);
+        };
+        if (descriptionLength >= 0) {
+            task.setDescriptionSource(() -> getString(buffer, heapStart, descriptionOffset, descriptionLength));
+        }
+        return task;
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer buffer, int offset) {
+        long seconds = buffer.getLong(offset);
+        return seconds == NONE ? null : LocalDateTime.ofEpochSecond(seconds, buffer.getInt(offset + 8), ZoneOffset.UTC);
+    }
+
+    private static void checkString(ByteBuffer buffer, int heapStart, int offset, int length) {
+        if (length >= 0 && (offset < 0 || (long) heapStart + offset + length > buffer.limit())) {
+            throw new IllegalStateException("Строка выходит за пределы кучи: смещение " + offset + ", длина " + length);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int heapStart, int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        checkString(buffer, heapStart, offset, length);
+        byte[] bytes = new byte[length];
+        buffer.get(heapStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
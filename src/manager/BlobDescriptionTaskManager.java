@@ -0,0 +1,138 @@
+package manager;
+
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.File;
+
+/**
+ * Менеджер, хранящий описания задач вне памяти, в файле {@link DescriptionBlobStore}.
+ * При создании и обновлении описание дописывается в файл, а задача получает вместо строки ссылку на него;
+ * {@link Task#getDescription()} читает описание при обращении через небольшой кэш.
+ * Списки и приоритетные представления описания не читают, поэтому в памяти остаются только
+ * имена и поля сроков, что для досок с длинными описаниями сокращает занимаемую память в разы.
+ */
+public class BlobDescriptionTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final DescriptionBlobStore store;
+
+    public BlobDescriptionTaskManager(HistoryManager historyManager, File blobFile) {
+        this(historyManager, blobFile, DescriptionBlobStore.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param historyManager
+     * @param blobFile  файл описаний; очищается при открытии
+     * @param cacheSize количество недавно прочитанных описаний, которые держатся в памяти
+     */
+    public BlobDescriptionTaskManager(HistoryManager historyManager, File blobFile, int cacheSize) {
+        super(historyManager);
+        this.store = new DescriptionBlobStore(blobFile, cacheSize);
+    }
+
+    /**
+     * @return размер файла описаний в байтах
+     */
+    public long blobSize() {
+        return store.size();
+    }
+
+    int cachedDescriptions() {
+        return store.cachedDescriptions();
+    }
+
+    /**
+     * Переносит описание в файл, если оно еще не ссылается на этот файл.
+     */
+    private void detachDescription(Task task) {
+        if (task.getDescriptionSource() instanceof DescriptionBlobStore.Ref ref && ref.store() == store) {
+            return;
+        }
+        String description = task.getDescription();
+        if (description != null) {
+            task.setDescriptionSource(store.append(description));
+        }
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public Long create(Task task) {
+        Long id = super.create(task);
+        detachDescription(task);
+        return id;
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public boolean update(Task task) {
+        boolean result = super.update(task);
+        if (result) {
+            detachDescription(task);
+        }
+        return result;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public Long create(Epic epic) {
+        Long id = super.create(epic);
+        detachDescription(epic);
+        return id;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public boolean update(Epic epic) {
+        boolean result = super.update(epic);
+        if (result) {
+            detachDescription(epic);
+        }
+        return result;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public Long create(SubTask subTask) {
+        Long id = super.create(subTask);
+        if (id != null) {
+            detachDescription(subTask);
+        }
+        return id;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public boolean update(SubTask subTask) {
+        boolean result = super.update(subTask);
+        if (result) {
+            detachDescription(subTask);
+        }
+        return result;
+    }
+
+    /**
+     * Закрывает файл описаний; после этого описания задач менеджера недоступны.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+}
@@ -0,0 +1,172 @@
+package manager;
+
+import models.Task;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * История просмотров, в которой просмотр не меняет общий список сразу. Поток записывает просмотр
+ * в свой сегмент - кольцевой буфер, выбранный по потоку, - и переносит буферы в историю-делегат
+ * пакетом, если удалось без ожидания захватить блокировку. Заполненный буфер, в который не удалось
+ * слить просмотры, отбрасывает новые: история при этом теряет отдельные просмотры, но чтение задач
+ * не ждет друг друга. {@link #getHistory()} и {@link #remove(Long)} сначала переносят все просмотры, записанные
+ * в буферы до их вызова, в том числе дожидаются ячеек, которые писатель занял, но еще не заполнил, - иначе
+ * такой просмотр удаленной задачи вернул бы ее в историю при следующем переносе.
+ * Порядок просмотров одного потока сохраняется, просмотры разных потоков упорядочены приблизительно.
+ */
+public class BufferedHistoryManager implements HistoryManager {
+    static final int BUFFER_SIZE = 64;
+    private static final int MAX_STRIPES = 64;
+
+    private final HistoryManager delegate;
+    private final Stripe[] stripes;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final LongAdder droppedViews = new LongAdder();
+
+    public BufferedHistoryManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    /**
+     * @param delegate история, в которую переносятся просмотры; обращения к ней идут только под блокировкой
+     */
+    public BufferedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        int stripeCount = Math.min(MAX_STRIPES,
+                Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Кольцевой буфер с несколькими писателями и одним читателем, который работает под блокировкой.
+     */
+    private static class Stripe {
+        private final AtomicReferenceArray<Task> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicLong readCounter = new AtomicLong();
+
+        /**
+         * Если ячейку одновременно занял другой поток, повторяет попытку со следующей, пока в буфере есть место.
+         *
+         * @return false, если буфер заполнен
+         */
+        boolean offer(Task task) {
+            long tail = writeCounter.get();
+            while (tail - readCounter.get() < BUFFER_SIZE) {
+                if (writeCounter.compareAndSet(tail, tail + 1)) {
+                    buffer.lazySet((int) (tail & (BUFFER_SIZE - 1)), task);
+                    return true;
+                }
+                tail = writeCounter.get();
+            }
+            return false;
+        }
+
+        /**
+         * @param awaitPending ждать просмотры в ячейках, которые писатели заняли, но еще не заполнили;
+         *                     иначе перенос останавливается на первой такой ячейке
+         */
+        void drainTo(HistoryManager historyManager, boolean awaitPending) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & (BUFFER_SIZE - 1));
+                Task task = buffer.get(index);
+                while (task == null && awaitPending) {
+                    // писатель занял ячейку и запишет в нее просмотр следующей же командой
+                    Thread.onSpinWait();
+                    task = buffer.get(index);
+                }
+                if (task == null) {
+                    break;
+                }
+                buffer.lazySet(index, null);
+                historyManager.add(task);
+            }
+            readCounter.lazySet(head);
+        }
+    }
+
+    private Stripe stripe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 32) & (stripes.length - 1)];
+    }
+
+    /**
+     * @param task
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        Stripe stripe = stripe();
+        if (stripe.offer(task)) {
+            return;
+        }
+        if (tryDrain() && stripe.offer(task)) {
+            return;
+        }
+        droppedViews.increment();
+    }
+
+    private boolean tryDrain() {
+        if (!drainLock.tryLock()) {
+            return false;
+        }
+        try {
+            drain(false);
+            return true;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drain(boolean awaitPending) {
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(delegate, awaitPending);
+        }
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public void remove(Long id) {
+        drainLock.lock();
+        try {
+            drain(true);
+            delegate.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * @return List<Task>
+     */
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drain(true);
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * @return количество просмотров, отброшенных из-за заполненных буферов
+     */
+    public long getDroppedViews() {
+        return droppedViews.sum();
+    }
+}
@@ -0,0 +1,108 @@
+package manager;
+
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потокобезопасная история просмотров без общей блокировки. Каждый просмотр получает возрастающий номер;
+ * задачи упорядочены по номеру в {@link ConcurrentSkipListMap}, а индекс id - номер последнего просмотра
+ * хранится в {@link ConcurrentHashMap}. Перестановка задачи выполняется внутри {@link ConcurrentHashMap#compute},
+ * поэтому просмотры одной задачи упорядочены между собой, а разных задач - не мешают друг другу.
+ * {@link #getHistory()} не блокирует запись и возвращает слабо согласованное состояние:
+ * задача, которую в этот момент просматривают повторно, может оказаться на месте предыдущего просмотра,
+ * но не повторяется.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private final int capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> lastViews = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Task> views = new ConcurrentSkipListMap<>();
+
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    /**
+     * @param capacity наибольшее количество задач в истории; при переполнении вытесняется самый ранний просмотр
+     */
+    public ConcurrentHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Некорректная емкость истории: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param task
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        lastViews.compute(task.getId(), (id, previousView) -> {
+            if (previousView != null) {
+                views.remove(previousView);
+            }
+            long view = sequence.incrementAndGet();
+            views.put(view, task);
+            return view;
+        });
+        while (lastViews.size() > capacity) {
+            Map.Entry<Long, Task> earliest = views.firstEntry();
+            if (earliest == null) {
+                return;
+            }
+            evict(earliest.getValue().getId(), earliest.getKey());
+        }
+    }
+
+    private void evict(Long id, Long view) {
+        lastViews.computeIfPresent(id, (key, lastView) -> {
+            if (!lastView.equals(view)) {
+                return lastView;
+            }
+            views.remove(lastView);
+            return null;
+        });
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        lastViews.computeIfPresent(id, (key, lastView) -> {
+            views.remove(lastView);
+            return null;
+        });
+    }
+
+    /**
+     * @return List<Task>
+     */
+    @Override
+    public List<Task> getHistory() {
+        Map<Long, Task> history = new LinkedHashMap<>();
+        for (Task task : views.values()) {
+            // задачу, перенесенную в конец во время обхода, можно встретить дважды: остается поздний просмотр
+            history.remove(task.getId());
+            history.put(task.getId(), task);
+        }
+        return new ArrayList<>(history.values());
+    }
+
+    public int size() {
+        return lastViews.size();
+    }
+}
@@ -0,0 +1,300 @@
+package manager;
+
+import exception.ManagerSaveException;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Потоковое чтение CSV-файла FileBackedTaskManager, в том числе сжатого GZIP. Файл читается блоками через канал,
+ * блок делится на записи по байту '\n' вне кавычек (в UTF-8 байты '\n' и '"' не встречаются внутри
+ * многобайтовых символов), а полные записи блока разбираются пакетом в {@link ForkJoinPool}. Одновременно в работе держится
+ * ограниченное число пакетов, поэтому текст файла целиком в памяти не хранится.
+ */
+class CsvStreamReader {
+    static final int CHUNK_SIZE = 1 << 20;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte QUOTE = '"';
+    private static final byte TRAILER_MARK = '#';
+    private static final Pattern TRAILER = Pattern.compile("#count=(\\d+);crc32c=([0-9a-f]{8})(?:;history=([\\d,]*))?");
+
+    private final File file;
+    private final String header;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final Deque<ForkJoinTask<List<Task>>> inFlight = new ArrayDeque<>();
+    private final List<Task> restoredTasks = new ArrayList<>();
+    private final List<Long> history = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private boolean headerChecked;
+    private long nextLineNumber;
+
+    CsvStreamReader(File file, String header) {
+        this(file, header, CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    CsvStreamReader(File file, String header, int chunkSize, ForkJoinPool pool) {
+        this.file = file;
+        this.header = header;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        this.maxInFlight = Math.max(2, pool.getParallelism() * 2);
+    }
+
+    /**
+     * @return задачи, эпики и подзадачи, упорядоченные по id
+     * @throws ManagerSaveException при ошибке чтения, несовпадении заголовка или ошибке разбора строки
+     */
+    List<Task> read() {
+        try (ReadableByteChannel channel = open()) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+            byte[] carry = new byte[0];
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                byte[] chunk = Arrays.copyOf(carry, carry.length + buffer.remaining());
+                buffer.get(chunk, carry.length, buffer.remaining());
+                buffer.clear();
+                // последняя полная запись придерживается: в конце файла она может оказаться завершающей строкой
+                int held = lastCompleteRecordStart(chunk);
+                if (held > 0) {
+                    submit(chunk, held);
+                    carry = Arrays.copyOfRange(chunk, held, chunk.length);
+                } else {
+                    carry = chunk;
+                }
+            }
+            int end = carry.length;
+            int finalRecordEnd = end > 0 && carry[end - 1] == NEW_LINE ? end - 1 : end;
+            int finalRecordStart = recordStart(carry, finalRecordEnd);
+            if (finalRecordStart < finalRecordEnd && carry[finalRecordStart] == TRAILER_MARK) {
+                submit(carry, finalRecordStart);
+                validate(decode(carry, finalRecordStart, finalRecordEnd));
+            } else if (end > 0) {
+                submit(carry, end);
+            }
+            while (!inFlight.isEmpty()) {
+                restoredTasks.addAll(inFlight.poll().join());
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении данных с файла: " + file.getAbsolutePath(), e);
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+        restoredTasks.sort(Comparator.comparing(Task::getId));
+        return restoredTasks;
+    }
+
+    /**
+     * Файл, сжатый GZIP, распаковывается потоково тем же чтением блоками.
+     */
+    private ReadableByteChannel open() throws IOException {
+        if (isGzip(file)) {
+            return Channels.newChannel(new GZIPInputStream(Files.newInputStream(file.toPath()), 1 << 16));
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * @param file
+     * @return true, если файл начинается с сигнатуры GZIP
+     */
+    static boolean isGzip(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return in.read() == (GZIPInputStream.GZIP_MAGIC & 0xff) && in.read() == (GZIPInputStream.GZIP_MAGIC >>> 8);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param count   количество строк задач
+     * @param crc     CRC32C всех байт файла до завершающей строки, включая заголовок
+     * @param history id задач истории просмотров от самого раннего просмотра
+     * @return завершающая строка CSV-снимка; CRC32C дополнительно учитывает текст списка истории
+     */
+    static String trailer(int count, Checksum crc, List<Long> history) {
+        String historyIds = history.stream().map(String::valueOf).collect(Collectors.joining(","));
+        crc.update(historyIds.getBytes(StandardCharsets.UTF_8));
+        return "#count=" + count + ";crc32c=" + String.format("%08x", crc.getValue())
+                + ";history=" + historyIds + "\n";
+    }
+
+    /**
+     * @return id истории просмотров из завершающей строки; пусто, если файл записан без нее
+     */
+    List<Long> history() {
+        return history;
+    }
+
+    private void validate(String trailer) {
+        Matcher matcher = TRAILER.matcher(trailer);
+        if (!matcher.matches()) {
+            throw new ManagerSaveException("Некорректная завершающая строка снимка: " + file.getAbsolutePath(), null);
+        }
+        long expectedCount = Long.parseLong(matcher.group(1));
+        long records = nextLineNumber - 1;
+        if (expectedCount != records) {
+            throw new ManagerSaveException("Снимок поврежден: " + file.getAbsolutePath()
+                    + " . Ожидалось записей: " + expectedCount + ", прочитано: " + records, null);
+        }
+        String historyIds = matcher.group(3);
+        if (historyIds != null) {
+            crc.update(historyIds.getBytes(StandardCharsets.UTF_8));
+        }
+        if (Long.parseLong(matcher.group(2), 16) != crc.getValue()) {
+            throw new ManagerSaveException("Снимок поврежден: " + file.getAbsolutePath()
+                    + " . Контрольная сумма не совпадает", null);
+        }
+        if (historyIds != null && !historyIds.isEmpty()) {
+            for (String historyId : historyIds.split(",")) {
+                history.add(Long.parseLong(historyId));
+            }
+        }
+    }
+
+    /**
+     * Отправляет в разбор полные строки chunk[0, length). Заголовок проверяется здесь же, до отправки.
+     */
+    private void submit(byte[] chunk, int length) {
+        int from = 0;
+        if (!headerChecked) {
+            int headerEnd = indexOf(chunk, 0, length);
+            String firstLine = decode(chunk, 0, headerEnd < 0 ? length : headerEnd);
+            if (!firstLine.equals(header)) {
+                throw new ManagerSaveException("Формат CSV-файла не соответствует: " + file.getAbsolutePath()
+                        + " . Ожидается:" + header, null);
+            }
+            headerChecked = true;
+            nextLineNumber = 1;
+            from = headerEnd < 0 ? length : headerEnd + 1;
+        }
+        crc.update(chunk, 0, length);
+        if (from == length) {
+            return;
+        }
+        if (inFlight.size() >= maxInFlight) {
+            restoredTasks.addAll(inFlight.poll().join());
+        }
+        long firstLineNumber = nextLineNumber;
+        nextLineNumber += countLines(chunk, from, length);
+        int batchFrom = from;
+        inFlight.add(pool.submit(() -> parse(chunk, batchFrom, length, firstLineNumber)));
+    }
+
+    private List<Task> parse(byte[] chunk, int from, int to, long firstLineNumber) {
+        List<Task> batch = new ArrayList<>();
+        long lineNumber = firstLineNumber;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = indexOf(chunk, lineStart, to);
+            if (lineEnd < 0) {
+                lineEnd = to;
+            }
+            try {
+                batch.add(FileBackedTaskManager.fromString(decode(chunk, lineStart, lineEnd)));
+            } catch (Exception e) {
+                throw new ManagerSaveException("При чтении файла: " + file.getAbsolutePath()
+                        + " . " + "Возникла ошибка при разборе строки № " + lineNumber, e);
+            }
+            lineNumber++;
+            lineStart = lineEnd + 1;
+        }
+        return batch;
+    }
+
+    private static String decode(byte[] chunk, int from, int to) {
+        if (to > from && chunk[to - 1] == CARRIAGE_RETURN) {
+            to--;
+        }
+        return new String(chunk, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return позиция '\n', завершающего запись, начатую в from, или -1
+     */
+    private static int indexOf(byte[] chunk, int from, int to) {
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            if (chunk[i] == QUOTE) {
+                quoted = !quoted;
+            } else if (chunk[i] == NEW_LINE && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Блок всегда начинается с начала записи, поэтому состояние кавычек отслеживается от его начала.
+     *
+     * @return начало последней завершенной '\n' записи блока; 0, если такая запись одна, и -1, если их нет
+     */
+    private static int lastCompleteRecordStart(byte[] chunk) {
+        boolean quoted = false;
+        int lastEnd = -1;
+        int previousEnd = -1;
+        for (int i = 0; i < chunk.length; i++) {
+            if (chunk[i] == QUOTE) {
+                quoted = !quoted;
+            } else if (chunk[i] == NEW_LINE && !quoted) {
+                previousEnd = lastEnd;
+                lastEnd = i;
+            }
+        }
+        return lastEnd < 0 ? -1 : previousEnd + 1;
+    }
+
+    /**
+     * @return начало записи, которая заканчивается в позиции to
+     */
+    private static int recordStart(byte[] chunk, int to) {
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < to; i++) {
+            if (chunk[i] == QUOTE) {
+                quoted = !quoted;
+            } else if (chunk[i] == NEW_LINE && !quoted) {
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static long countLines(byte[] chunk, int from, int to) {
+        long lines = 0;
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            if (chunk[i] == QUOTE) {
+                quoted = !quoted;
+            } else if (chunk[i] == NEW_LINE && !quoted) {
+                lines++;
+            }
+        }
+        return chunk[to - 1] == NEW_LINE && !quoted ? lines : lines + 1;
+    }
+}
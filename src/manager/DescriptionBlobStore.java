@@ -0,0 +1,127 @@
+package manager;
+
+import exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Файл описаний, в который строки только дописываются. Задача хранит вместо строки ссылку {@link Ref}
+ * на смещение и длину, а строка читается из файла при обращении; недавно прочитанные строки
+ * держатся в небольшом LRU-кэше. Файл служит рабочей областью открытого менеджера:
+ * при открытии он очищается, место перезаписанных описаний освобождается только при следующем открытии.
+ */
+class DescriptionBlobStore implements AutoCloseable {
+    static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final Map<Long, String> cache;
+    private long size;
+
+    /**
+     * Ссылка на описание в файле; читает его при каждом обращении через кэш хранилища.
+     */
+    record Ref(DescriptionBlobStore store, long offset, int length) implements Supplier<String> {
+        @Override
+        public String get() {
+            return store.read(offset, length);
+        }
+    }
+
+    /**
+     * @param file
+     * @param cacheSize количество описаний в кэше
+     */
+    DescriptionBlobStore(File file, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Некорректный размер кэша: " + cacheSize);
+        }
+        this.file = file;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        try {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при открытии файла описаний: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Дописывает описание в конец файла.
+     *
+     * @param description
+     * @return ссылка на записанное описание
+     */
+    synchronized Ref append(String description) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        long offset = size;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в файл описаний: " + file.getAbsolutePath(), e);
+        }
+        size += bytes.length;
+        return new Ref(this, offset, bytes.length);
+    }
+
+    synchronized String read(long offset, int length) {
+        String description = cache.get(offset);
+        if (description != null) {
+            return description;
+        }
+        if (!channel.isOpen()) {
+            throw new ManagerSaveException("Файл описаний закрыт: " + file.getAbsolutePath(), null);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new ManagerSaveException("Файл описаний поврежден: " + file.getAbsolutePath()
+                            + " . Описание выходит за конец файла", null);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении файла описаний: " + file.getAbsolutePath(), e);
+        }
+        description = new String(buffer.array(), StandardCharsets.UTF_8);
+        cache.put(offset, description);
+        return description;
+    }
+
+    /**
+     * @return размер файла в байтах, включая перезаписанные описания
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized int cachedDescriptions() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        cache.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии файла описаний: " + file.getAbsolutePath(), e);
+        }
+    }
+}
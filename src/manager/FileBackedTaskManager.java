@@ -1,171 +1,553 @@
 package manager;
 
-import enums.TaskStatus;
-import enums.TaskType;
+import enums.Durability;
+import enums.SnapshotFormat;
 import exception.ManagerSaveException;
+import models.BatchResult;
 import models.Epic;
+import models.SnapshotStats;
 import models.SubTask;
 import models.Task;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
-public class FileBackedTaskManager extends InMemoryTaskManager implements TaskManager {
+/**
+ * Менеджер с сохранением в файл в формате CSV, сжатом CSV или в двоичном формате {@link BinarySnapshot}.
+ * По умолчанию файл перезаписывается после каждой операции.
+ * В режиме отложенной записи операции только помечают состояние измененным, а фоновый поток
+ * сворачивает накопившиеся изменения в одну запись файла.
+ * Под блокировкой менеджера снимается только копия состояния, сериализация и запись идут без нее.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements TaskManager, AutoCloseable {
     private final File file;
     private static final String CSV_HEADER = "id,type,name,status,description,epic";
+    private final SnapshotFormat format;
+    private final int compressionLevel;
+    private final Durability durability;
+    private final int flushEveryOps;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-backed-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean saveSuspended;
+    private boolean dirty;
+    private int pendingOps;
+    private boolean flushScheduled;
+    private volatile ManagerSaveException flushError;
+
+    /**
+     * Пишет содержимое файла в поток; поток закрывает вызывающий код.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
 
     public FileBackedTaskManager(HistoryManager historyManager, File file) {
+        this(historyManager, file, SnapshotFormat.CSV);
+    }
+
+    /**
+     * @param historyManager
+     * @param file
+     * @param format формат, в котором сохраняется файл
+     */
+    public FileBackedTaskManager(HistoryManager historyManager, File file, SnapshotFormat format) {
+        this(historyManager, file, format, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param historyManager
+     * @param file
+     * @param format
+     * @param compressionLevel уровень сжатия {@link Deflater} для формата {@link SnapshotFormat#CSV_GZIP}
+     */
+    public FileBackedTaskManager(HistoryManager historyManager, File file, SnapshotFormat format,
+                                 int compressionLevel) {
+        super(historyManager);
+        checkCompressionLevel(compressionLevel);
+        this.file = file;
+        this.format = format;
+        this.compressionLevel = compressionLevel;
+        this.durability = Durability.BATCH;
+        this.flushEveryOps = 1;
+        this.flusher = null;
+    }
+
+    /**
+     * Создает менеджер с отложенной записью.
+     *
+     * @param historyManager
+     * @param file
+     * @param flushIntervalMillis период фоновой записи в миллисекундах, 0 - без периодической записи
+     * @param flushEveryOps       количество операций, после которого запись запускается досрочно, 0 - без ограничения
+     * @param durability          {@link Durability#OP} отключает отложенную запись: каждая операция
+     *                            сохраняется и синхронизируется с диском сразу
+     */
+    public FileBackedTaskManager(HistoryManager historyManager, File file, long flushIntervalMillis,
+                                 int flushEveryOps, Durability durability) {
+        this(historyManager, file, SnapshotFormat.CSV, flushIntervalMillis, flushEveryOps, durability);
+    }
+
+    /**
+     * Создает менеджер с отложенной записью в указанном формате.
+     *
+     * @param historyManager
+     * @param file
+     * @param format
+     * @param flushIntervalMillis
+     * @param flushEveryOps
+     * @param durability
+     */
+    public FileBackedTaskManager(HistoryManager historyManager, File file, SnapshotFormat format,
+                                 long flushIntervalMillis, int flushEveryOps, Durability durability) {
         super(historyManager);
+        if (flushIntervalMillis < 0 || flushEveryOps < 0) {
+            throw new IllegalArgumentException("Параметры записи не могут быть отрицательными");
+        }
         this.file = file;
+        this.format = format;
+        this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        this.durability = durability;
+        this.flushEveryOps = flushEveryOps;
+        if (durability == Durability.OP) {
+            this.flusher = null;
+            return;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-backed-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
     }
 
     private void save() {
-        if (!(file.canWrite())) {
-            throw new ManagerSaveException("Не удается сохранить файл по указанному пути: " + file.getAbsolutePath(), null);
+        if (saveSuspended) {
+            return;
+        }
+        dirty = true;
+        if (flusher == null) {
+            // запись идет под блокировкой изменения, поэтому задачи кодируются без копирования
+            markClean();
+            write(file, liveState(), format, compressionLevel);
+            return;
+        }
+        if (flushEveryOps > 0 && ++pendingOps >= flushEveryOps && !flushScheduled) {
+            flushScheduled = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            flushError = e;
         }
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
-            writer.write(CSV_HEADER + "\n");
-            for (Task task : getTasks()) {
-                writer.write(toString(task) + "\n");
+    }
+
+    /**
+     * Записывает накопленные изменения в файл. Состояние снимается под блокировкой менеджера,
+     * запись файла идет без нее; последовательные вызовы записывают снимки в порядке их снятия.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            InMemoryTaskManager.Snapshot state;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                state = capture();
             }
-            for (Epic epic : getEpics()) {
-                writer.write(toString(epic) + "\n");
+            try {
+                write(file, state, format, compressionLevel);
+            } catch (ManagerSaveException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private InMemoryTaskManager.Snapshot capture() {
+        InMemoryTaskManager.Snapshot state = snapshot();
+        markClean();
+        return state;
+    }
+
+    private void markClean() {
+        dirty = false;
+        pendingOps = 0;
+        flushScheduled = false;
+    }
+
+    private static void checkCompressionLevel(int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Некорректный уровень сжатия: " + compressionLevel);
+        }
+    }
+
+    /**
+     * Кодирует снимок прямо в поток: CSV и сжатый CSV пишутся без промежуточного массива с файлом целиком.
+     */
+    private static void encode(OutputStream out, InMemoryTaskManager.Snapshot state, SnapshotFormat format,
+                               int compressionLevel) throws IOException {
+        switch (format) {
+            case BINARY -> out.write(BinarySnapshot.write(state));
+            case CSV -> writeCsvSnapshot(out, state);
+            case CSV_GZIP -> writeCsvSnapshot(out, state, compressionLevel);
+        }
+    }
+
+    /**
+     * Снимок пишется во временный файл рядом с целевым, синхронизируется с диском и атомарно заменяет прежний,
+     * поэтому при сбое во время записи на диске остается предыдущий целый снимок.
+     * Двоичный снимок к тому же загружается отображением в память, и перезаписывать его на месте нельзя.
+     * Файла может еще не быть: достаточно, чтобы в его каталог можно было записать временный файл.
+     */
+    private void write(File target, InMemoryTaskManager.Snapshot state, SnapshotFormat format, int compressionLevel) {
+        writeAtomically(target, out -> encode(out, state, format, compressionLevel), durability != Durability.NONE);
+    }
+
+    /**
+     * @param target
+     * @param content
+     * @param sync    синхронизировать временный файл и каталог с диском
+     */
+    static void writeAtomically(File target, byte[] content, boolean sync) {
+        writeAtomically(target, out -> out.write(content), sync);
+    }
+
+    /**
+     * Каждый вызов пишет в свой временный файл, поэтому одновременные записи одного файла не портят друг друга.
+     * Содержимое пишется во временный файл потоком и не собирается в памяти целиком.
+     *
+     * @param target
+     * @param content
+     * @param sync    синхронизировать временный файл и каталог с диском
+     */
+    static void writeAtomically(File target, ContentWriter content, boolean sync) {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(target.getName() + ".", ".tmp", target.getAbsoluteFile().getParentFile());
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                content.writeTo(out);
+                if (sync) {
+                    out.getFD().sync();
+                }
             }
-            for (SubTask subtask : getSubTasks()) {
-                writer.write(toString(subtask) + "\n");
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            if (sync) {
+                syncDirectory(target.getAbsoluteFile().getParentFile());
             }
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getAbsolutePath(), e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            throw new ManagerSaveException("Ошибка при сохранении в файл: " + target.getAbsolutePath(), e);
+        }
+    }
+
+    private static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // не все платформы позволяют синхронизировать каталог; переименование уже выполнено
         }
     }
 
     /**
-     * @param task
-     * @return String for CSV format
+     * Сохраняет текущее состояние в другой файл, например для перевода доски из CSV в двоичный формат.
+     *
+     * @param target
+     * @param format
      */
-    private String toString(Task task) {
-        if (task instanceof SubTask subtask) {
-            return String.format("%d,%s,%s,%s,%s,%d,%s,%s,%s",
-                    subtask.getId(),
-                    TaskType.SUBTASK,
-                    subtask.getName(),
-                    subtask.getStatus(),
-                    subtask.getDescription(),
-                    subtask.getEpicId(),
-                    subtask.getStartTime(),
-                    subtask.getEndTime(),
-                    subtask.getDuration().toMinutes()
-            );
-        } else if (task instanceof Epic epic) {
-            return String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s",
-                    epic.getId(),
-                    TaskType.EPIC,
-                    epic.getName(),
-                    epic.getStatus(),
-                    epic.getDescription(),
-                    "",
-                    epic.getStartTime(),
-                    epic.getEndTime(),
-                    epic.getDuration().toMinutes()
-            );
-        } else {
-            return String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s",
-                    task.getId(),
-                    TaskType.TASK,
-                    task.getName(),
-                    task.getStatus(),
-                    task.getDescription(),
-                    "",
-                    task.getStartTime(),
-                    task.getEndTime(),
-                    task.getDuration().toMinutes()
-            );
+    public void exportTo(File target, SnapshotFormat format) {
+        exportTo(target, format, compressionLevel);
+    }
+
+    /**
+     * @param target
+     * @param format
+     * @param compressionLevel уровень сжатия для формата {@link SnapshotFormat#CSV_GZIP}
+     */
+    public void exportTo(File target, SnapshotFormat format, int compressionLevel) {
+        checkCompressionLevel(compressionLevel);
+        InMemoryTaskManager.Snapshot state;
+        synchronized (this) {
+            state = snapshot();
         }
+        write(target, state, format, compressionLevel);
     }
 
-    private static Task fromString(String value) {
-        String[] fields = value.split(",");
-
-        Long id = Long.parseLong(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        TaskStatus taskStatus = TaskStatus.valueOf(fields[3]);
-        String description = fields[4];
-        LocalDateTime startTime = LocalDateTime.parse(fields[6]);
-        LocalDateTime endTime = LocalDateTime.parse(fields[7]);
-        Duration duration = Duration.ofMinutes(Long.parseLong(fields[8]));
-
-        switch (type) {
-            case TASK:
-                return new Task(id, name, description, taskStatus, startTime, duration);
-            case EPIC:
-                return new Epic(id, name, description, taskStatus, startTime, endTime, duration);
-            case SUBTASK:
-                String epicIdString = fields[5];
-                Long epicId = Long.parseLong(epicIdString);
-                return new SubTask(id, epicId, name, description, taskStatus, startTime, duration);
-            default:
-                throw new ManagerSaveException("Указан неизвестный тип задачи: " + type, null);
+    /**
+     * Сохраняет копию текущего состояния в другой файл, например для резервной копии, в фоновом потоке.
+     * Вызов задерживает изменения только на время снятия состояния, сериализация и запись
+     * идут параллельно с ними, и в файл попадает состояние на момент вызова.
+     *
+     * @param target файл копии; основной файл менеджера записывается только через {@link #flush()}
+     * @param format
+     * @return время снятия состояния и записи, количество задач и записанных байт
+     */
+    public CompletableFuture<SnapshotStats> snapshotAsync(File target, SnapshotFormat format) {
+        if (target.getAbsoluteFile().equals(file.getAbsoluteFile())) {
+            throw new IllegalArgumentException("Копия не может быть записана в основной файл: "
+                    + target.getAbsolutePath());
+        }
+        long start = System.nanoTime();
+        InMemoryTaskManager.Snapshot state;
+        synchronized (this) {
+            state = snapshot();
         }
+        Duration captureDuration = Duration.ofNanos(System.nanoTime() - start);
+        return CompletableFuture.supplyAsync(() -> {
+            write(target, state, format, compressionLevel);
+            return new SnapshotStats(state.size(), target.length(), captureDuration,
+                    Duration.ofNanos(System.nanoTime() - start));
+        }, snapshotWriter);
     }
 
-    private static List<String> readDataFromFile(File file) {
-        List<String> lines;
-        if (!file.canRead()) {
-            throw new ManagerSaveException("Не удается прочитать указанный файл: " + file.getAbsolutePath(), null);
+    /**
+     * Дожидается записи копий, останавливает фоновую запись и сохраняет оставшиеся изменения.
+     *
+     * @throws ManagerSaveException если фоновая запись завершилась ошибкой
+     */
+    @Override
+    public void close() {
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        if (file.length() == 0) {
-            throw new ManagerSaveException("Размер указанного файла равен нулю: " + file.getAbsolutePath(), null);
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (flushError != null) {
+            throw flushError;
+        }
+    }
+
+    /**
+     * @return количество записанных строк задач
+     */
+    static int writeCsv(Writer writer, InMemoryTaskManager.Snapshot state) throws IOException {
+        TaskCsvCodec codec = new TaskCsvCodec();
+        int count = 0;
+        writer.write(CSV_HEADER + "\n");
+        for (Task task : state.tasks()) {
+            codec.write(task, writer);
+            count++;
+        }
+        for (Epic epic : state.epics()) {
+            codec.write(epic, writer);
+            count++;
+        }
+        for (SubTask subtask : state.subTasks()) {
+            codec.write(subtask, writer);
+            count++;
         }
+        return count;
+    }
+
+    /**
+     * @param state
+     * @return CSV-снимок с завершающей строкой {@link CsvStreamReader#trailer(int, java.util.zip.Checksum, List)}
+     */
+    static byte[] encodeCsv(InMemoryTaskManager.Snapshot state) {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
         try {
-            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            writeCsvSnapshot(snapshot, state);
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при чтении данных с файла: " + file.getAbsolutePath(), e);
+            throw new ManagerSaveException("Ошибка при формировании снимка", e);
         }
-        if (lines.size() > 0 && !lines.get(0).equals(CSV_HEADER)) {
-            throw new ManagerSaveException("Формат CSV-файла не соответствует: " + file.getAbsolutePath()
-                    + " . Ожидается:" + CSV_HEADER, null);
+        return snapshot.toByteArray();
+    }
+
+    /**
+     * Сжимает CSV-снимок потоково, без промежуточной несжатой копии. Поток out остается открытым.
+     *
+     * @param out
+     * @param state
+     * @param compressionLevel
+     */
+    private static void writeCsvSnapshot(OutputStream out, InMemoryTaskManager.Snapshot state, int compressionLevel)
+            throws IOException {
+        OutputStream unclosed = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        try (GZIPOutputStream gzip = new GZIPOutputStream(unclosed, 1 << 16) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        }) {
+            writeCsvSnapshot(gzip, state);
         }
-        return lines;
+    }
+
+    private static void writeCsvSnapshot(OutputStream out, InMemoryTaskManager.Snapshot state) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32C());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(checked, StandardCharsets.UTF_8), 1 << 16);
+        int count = writeCsv(writer, state);
+        writer.flush();
+        out.write(CsvStreamReader.trailer(count, checked.getChecksum(), state.history())
+                .getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * @param task
+     * @return String for CSV format
+     */
+    static String toString(Task task) {
+        StringBuilder row = new StringBuilder(128);
+        TaskCsvCodec.appendRow(row, task);
+        return row.toString();
+    }
+
+    static Task fromString(String value) {
+        return TaskCsvCodec.decode(value);
     }
 
     /**
+     * Загружает менеджер из файла одним проходом, без перезаписи файла и проверки пересечений.
+     * Формат определяется по сигнатуре файла и сохраняется для последующих записей.
+     *
      * @param file
      * @return
      */
     public static FileBackedTaskManager loadFromFile(File file) {
-        List<String> dataFromFile = readDataFromFile(file);
         HistoryManager historyManager = Managers.getDefaultHistory();
-        FileBackedTaskManager manager = new FileBackedTaskManager(historyManager, file);
-        for (int i = 1; i < dataFromFile.size(); i++) {
-            try {
-                Task task = fromString(dataFromFile.get(i));
-                if (task instanceof SubTask subtask) {
-                    manager.create(subtask);
-                } else if (task instanceof Epic epic) {
-                    manager.create(epic);
-                } else {
-                    manager.create(task);
-                }
-            } catch (Exception e) {
-                manager.clear();
-                throw new ManagerSaveException("При чтении файла: " + file.getAbsolutePath()
-                        + " . " + "Возникла ошибка при разборе строки № " + i, e);
-            }
+        SnapshotFormat format = file.canRead() ? detectFormat(file) : SnapshotFormat.CSV;
+        FileBackedTaskManager manager = new FileBackedTaskManager(historyManager, file, format);
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.Content content = BinarySnapshot.read(file);
+            manager.restore(content.tasks());
+            manager.restoreHistory(content.history());
+        } else {
+            CsvStreamReader reader = csvReader(file);
+            manager.restore(reader.read());
+            manager.restoreHistory(reader.history());
         }
         return manager;
     }
 
+    /**
+     * @param file
+     * @return формат файла по его сигнатуре
+     */
+    static SnapshotFormat detectFormat(File file) {
+        if (BinarySnapshot.isBinary(file)) {
+            return SnapshotFormat.BINARY;
+        }
+        return CsvStreamReader.isGzip(file) ? SnapshotFormat.CSV_GZIP : SnapshotFormat.CSV;
+    }
+
+    /**
+     * Читает CSV-файл потоково, разбирая строки параллельно, см. {@link CsvStreamReader}.
+     *
+     * @param file
+     * @return задачи, эпики и подзадачи, упорядоченные по id
+     */
+    static List<Task> readTasks(File file) {
+        return csvReader(file).read();
+    }
+
+    private static CsvStreamReader csvReader(File file) {
+        if (!file.canRead()) {
+            throw new ManagerSaveException("Не удается прочитать указанный файл: " + file.getAbsolutePath(), null);
+        }
+        if (file.length() == 0) {
+            throw new ManagerSaveException("Размер указанного файла равен нулю: " + file.getAbsolutePath(), null);
+        }
+        return new CsvStreamReader(file, CSV_HEADER);
+    }
+
+    /**
+     * Просмотр меняет только историю: состояние помечается измененным без немедленной записи,
+     * история попадает в файл со следующей записью, {@link #flush()} или {@link #close()}.
+     */
+    private <T extends Task> T viewed(T task) {
+        if (task != null) {
+            dirty = true;
+        }
+        return task;
+    }
+
+    /**
+     * @param id
+     * @return
+     */
+    @Override
+    public synchronized Task getTask(Long id) {
+        return viewed(super.getTask(id));
+    }
+
+    /**
+     * @param id
+     * @return
+     */
+    @Override
+    public synchronized Epic getEpic(Long id) {
+        return viewed(super.getEpic(id));
+    }
+
+    /**
+     * @param id
+     * @return
+     */
+    @Override
+    public synchronized SubTask getSubTask(Long id) {
+        return viewed(super.getSubTask(id));
+    }
+
     /**
      * @param task
      * @return
      */
     @Override
-    public Long create(Task task) {
+    public synchronized Long create(Task task) {
         Long id = super.create(task);
         save();
         return id;
@@ -176,7 +558,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @return
      */
     @Override
-    public boolean update(Task task) {
+    public synchronized boolean update(Task task) {
         boolean result = super.update(task);
         save();
         return result;
@@ -187,7 +569,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @return
      */
     @Override
-    public Long create(Epic epic) {
+    public synchronized Long create(Epic epic) {
         Long id = super.create(epic);
         save();
         return id;
@@ -198,7 +580,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @return
      */
     @Override
-    public boolean update(Epic epic) {
+    public synchronized boolean update(Epic epic) {
         boolean result = super.update(epic);
         save();
         return result;
@@ -209,7 +591,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @return
      */
     @Override
-    public Long create(SubTask subTask) {
+    public synchronized Long create(SubTask subTask) {
         Long id = super.create(subTask);
         save();
         return id;
@@ -220,17 +602,36 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @return
      */
     @Override
-    public boolean update(SubTask subTask) {
+    public synchronized boolean update(SubTask subTask) {
         boolean result = super.update(subTask);
         save();
         return result;
     }
 
+    /**
+     * @param batch
+     * @return
+     */
+    @Override
+    public synchronized BatchResult createAll(Collection<? extends Task> batch) {
+        BatchResult result;
+        saveSuspended = true;
+        try {
+            result = super.createAll(batch);
+        } finally {
+            saveSuspended = false;
+        }
+        if (result.isCommitted()) {
+            save();
+        }
+        return result;
+    }
+
     /**
      *
      */
     @Override
-    public void clearTasks() {
+    public synchronized void clearTasks() {
         super.clearTasks();
         save();
     }
@@ -239,7 +640,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      *
      */
     @Override
-    public void clearEpics() {
+    public synchronized void clearEpics() {
         super.clearEpics();
         save();
     }
@@ -248,7 +649,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      *
      */
     @Override
-    public void clearSubTasks() {
+    public synchronized void clearSubTasks() {
         super.clearSubTasks();
         save();
     }
@@ -257,7 +658,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      *
      */
     @Override
-    public void clear() {
+    public synchronized void clear() {
         super.clear();
         save();
     }
@@ -266,7 +667,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @param id
      */
     @Override
-    public void removeTask(Long id) {
+    public synchronized void removeTask(Long id) {
         super.removeTask(id);
         save();
     }
@@ -275,7 +676,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @param id
      */
     @Override
-    public void removeEpic(Long id) {
+    public synchronized void removeEpic(Long id) {
         super.removeEpic(id);
         save();
     }
@@ -284,7 +685,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
      * @param subtaskId
      */
     @Override
-    public void removeSubTask(Long subtaskId) {
+    public synchronized void removeSubTask(Long subtaskId) {
         super.removeSubTask(subtaskId);
         save();
     }
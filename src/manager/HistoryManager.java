@@ -10,4 +10,27 @@ public interface HistoryManager {
     void remove(Long id);
 
     List<Task> getHistory();
+
+    /**
+     * @param userId
+     * @return история пользователя; история без разделения по пользователям общая для всех
+     */
+    default List<Task> getHistory(String userId) {
+        return getHistory();
+    }
+
+    /**
+     * @return задачи из истории всех пользователей без повторов; для общей истории совпадает с {@link #getHistory()}
+     */
+    default List<Task> getAllHistory() {
+        return getHistory();
+    }
+
+    /**
+     * @return true, если история ведется отдельно для каждого пользователя; такая история
+     * относится к сеансам пользователей и не сохраняется в снимки
+     */
+    default boolean isPartitioned() {
+        return false;
+    }
 }
@@ -6,11 +6,35 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+/**
+ * История просмотров: связный список в порядке просмотров и индекс узлов по id.
+ * При ограниченной емкости добавление в заполненную историю вытесняет самый ранний просмотр за O(1).
+ */
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
     protected HashMap<Long, Node> history = new HashMap<>();
+    private final int capacity;
     private Node head;
     private Node tail;
 
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * @param capacity наибольшее количество задач в истории
+     */
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Некорректная емкость истории: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
     private static class Node {
         public Task task;
         public Node prev;
@@ -33,6 +57,10 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         remove(task.getId());
         linkLast(task);
+        if (history.size() > capacity) {
+            history.remove(head.task.getId());
+            removeNode(head);
+        }
     }
 
     /**
@@ -88,7 +116,7 @@ public class InMemoryHistoryManager implements HistoryManager {
      * @return List<Task>
      */
     private List<Task> getTasks() {
-        List<Task> listTasks = new ArrayList<>();
+        List<Task> listTasks = new ArrayList<>(history.size());
         if (head != null) {
             Node node = head;
             while (node.next != null) {
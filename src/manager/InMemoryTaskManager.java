@@ -2,10 +2,15 @@ package manager;
 
 import enums.TaskStatus;
 import exception.TaskValidationException;
+import models.BatchResult;
 import models.Epic;
+import models.ScheduleConflict;
 import models.SubTask;
 import models.Task;
+import models.TaskPage;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -15,11 +20,16 @@ public class InMemoryTaskManager implements TaskManager {
     protected final Map<Long, Task> tasks = new HashMap<>();
     protected final Map<Long, Epic> epics = new HashMap<>();
     protected final Map<Long, SubTask> subTasks = new HashMap<>();
-    protected final TreeSet<Task> sortedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime,
-            Comparator.nullsLast(Comparator.naturalOrder())));
+    protected final PrioritizedIndex sortedTasks = new PrioritizedIndex();
+    protected final ScheduleIndex scheduleIndex;
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new IntervalTree());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, ScheduleIndex scheduleIndex) {
         this.historyManager = historyManager;
+        this.scheduleIndex = scheduleIndex;
     }
 
     public long nextId() {
@@ -33,12 +43,9 @@ public class InMemoryTaskManager implements TaskManager {
             task.setId(newTaskId);
         }
         if (task.getStartTime() != null && task.getDuration() != null) {
-            Optional<Task> taskIntercepted = sortedTasks.stream()
-                    .filter(existingTask -> isTaskTermIntercept(existingTask, task)).findFirst();
-            if (taskIntercepted.isPresent()) {
-                throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-            }
-            sortedTasks.add(task);
+            checkTermIntercept(task, null);
+            sortedTasks.put(task);
+            scheduleIndex.put(task);
         }
         tasks.put(task.getId(), task);
         return task.getId();
@@ -48,12 +55,12 @@ public class InMemoryTaskManager implements TaskManager {
     public boolean update(Task task) {
         if (task.getId() != null) {
             if (task.getStartTime() != null && task.getDuration() != null) {
-                Optional<Task> taskIntercepted = sortedTasks.stream()
-                        .filter(existingTask -> isTaskTermIntercept(existingTask, task)).findFirst();
-                if (taskIntercepted.isPresent()) {
-                    throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-                }
-                sortedTasks.add(task);
+                checkTermIntercept(task, null);
+                sortedTasks.put(task);
+                scheduleIndex.put(task);
+            } else {
+                sortedTasks.remove(task.getId());
+                scheduleIndex.remove(task.getId());
             }
             tasks.put(task.getId(), task);
             return true;
@@ -68,12 +75,9 @@ public class InMemoryTaskManager implements TaskManager {
             epic.setId(newTaskId);
         }
         if (epic.getStartTime() != null && epic.getDuration() != null) {
-            Optional<Task> taskIntercepted = sortedTasks.stream()
-                    .filter(existingTask -> isTaskTermIntercept(existingTask, epic)).findFirst();
-            if (taskIntercepted.isPresent()) {
-                throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-            }
-            sortedTasks.add(epic);
+            checkTermIntercept(epic, null);
+            sortedTasks.put(epic);
+            scheduleIndex.put(epic);
         }
         epics.put(epic.getId(), epic);
         return epic.getId();
@@ -83,12 +87,12 @@ public class InMemoryTaskManager implements TaskManager {
     public boolean update(Epic epic) {
         if (epic.getId() != null) {
             if (epic.getStartTime() != null && epic.getDuration() != null) {
-                Optional<Task> taskIntercepted = sortedTasks.stream()
-                        .filter(existingTask -> isTaskTermIntercept(existingTask, epic)).findFirst();
-                if (taskIntercepted.isPresent()) {
-                    throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-                }
-                sortedTasks.add(epic);
+                checkTermIntercept(epic, null);
+                sortedTasks.put(epic);
+                scheduleIndex.put(epic);
+            } else {
+                sortedTasks.remove(epic.getId());
+                scheduleIndex.remove(epic.getId());
             }
             epics.put(epic.getId(), epic);
             return true;
@@ -107,14 +111,9 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epic = epics.get(subTask.getEpicId());
         if (epic != null) {
             if (subTask.getStartTime() != null && subTask.getDuration() != null) {
-                Optional<Task> taskIntercepted = sortedTasks.stream()
-                        .filter(existingTask -> isTaskTermIntercept(existingTask, subTask))
-                        .filter(existingTask -> existingTask.getId() != subTask.getEpicId())//epic exclude
-                        .findFirst();
-                if (taskIntercepted.isPresent()) {
-                    throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-                }
-                sortedTasks.add(subTask);
+                checkTermIntercept(subTask, subTask.getEpicId());//epic exclude
+                sortedTasks.put(subTask);
+                scheduleIndex.put(subTask);
             }
             subTasks.put(newSubTaskId, subTask);
             epic.setSubTaskId(newSubTaskId);
@@ -131,12 +130,12 @@ public class InMemoryTaskManager implements TaskManager {
             Epic epic = epics.get(subTask.getEpicId());
             if (epic != null) {
                 if (subTask.getStartTime() != null && subTask.getDuration() != null) {
-                    Optional<Task> taskIntercepted = sortedTasks.stream()
-                            .filter(existingTask -> isTaskTermIntercept(existingTask, subTask)).findFirst();
-                    if (taskIntercepted.isPresent()) {
-                        throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted.get());
-                    }
-                    sortedTasks.add(subTask);
+                    checkTermIntercept(subTask, subTask.getEpicId());//epic exclude
+                    sortedTasks.put(subTask);
+                    scheduleIndex.put(subTask);
+                } else {
+                    sortedTasks.remove(subTaskId);
+                    scheduleIndex.remove(subTaskId);
                 }
                 subTasks.put(subTaskId, subTask);
                 epic.setSubTaskId(subTaskId);
@@ -147,6 +146,209 @@ public class InMemoryTaskManager implements TaskManager {
         return false;
     }
 
+    /**
+     * Проверяет пакет целиком и создает все задачи, только если конфликтов нет.
+     * Задачи пакета сортируются по startTime и проверяются друг с другом одним проходом,
+     * а с уже существующим расписанием - по индексу занятости.
+     *
+     * @param batch задачи, эпики и подзадачи; подзадача может ссылаться на эпик из этого же пакета по id
+     * @return созданные id или полный список конфликтов
+     */
+    @Override
+    public BatchResult createAll(Collection<? extends Task> batch) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        Set<Long> batchEpicIds = new HashSet<>();
+        List<Task> timedTasks = new ArrayList<>();
+        for (Task task : batch) {
+            if (task instanceof Epic && task.getId() != null) {
+                batchEpicIds.add(task.getId());
+            }
+        }
+        for (Task task : batch) {
+            if (task instanceof SubTask subTask && !epics.containsKey(subTask.getEpicId())
+                    && !batchEpicIds.contains(subTask.getEpicId())) {
+                conflicts.add(new ScheduleConflict(task, null, "Не найден эпик: " + subTask.getEpicId()));
+            }
+            if (task.getStartTime() != null && task.getDuration() != null) {
+                timedTasks.add(task);
+                Task taskIntercepted = scheduleIndex.findIntercept(task.getStartTime(), ScheduleIndex.endOf(task),
+                        existingTask -> isSameOrOwnEpic(task, existingTask));
+                if (taskIntercepted != null) {
+                    conflicts.add(new ScheduleConflict(task, taskIntercepted,
+                            "Указанное время уже занято, задачей: " + taskIntercepted));
+                }
+            }
+        }
+        checkBatchIntercepts(timedTasks, conflicts);
+        if (!conflicts.isEmpty()) {
+            return new BatchResult(List.of(), List.copyOf(conflicts));
+        }
+        for (Task task : batch) {
+            if (task instanceof Epic epic) {
+                create(epic);
+            }
+        }
+        for (Task task : batch) {
+            if (!(task instanceof Epic) && !(task instanceof SubTask)) {
+                create(task);
+            }
+        }
+        for (Task task : batch) {
+            if (task instanceof SubTask subTask) {
+                create(subTask);
+            }
+        }
+        List<Long> ids = new ArrayList<>(batch.size());
+        batch.forEach(task -> ids.add(task.getId()));
+        return new BatchResult(ids, List.of());
+    }
+
+    /**
+     * Сортирует задачи пакета по startTime и одним проходом проверяет их пересечения друг с другом.
+     *
+     * @param timedTasks задачи пакета со сроками
+     * @param conflicts  список, в который добавляются найденные конфликты
+     */
+    static void checkBatchIntercepts(List<Task> timedTasks, List<ScheduleConflict> conflicts) {
+        timedTasks.sort(Comparator.comparing(Task::getStartTime));
+        PriorityQueue<Task> activeTasks = new PriorityQueue<>(Comparator.comparing(ScheduleIndex::endOf));
+        for (Task task : timedTasks) {
+            while (!activeTasks.isEmpty() && !ScheduleIndex.endOf(activeTasks.peek()).isAfter(task.getStartTime())) {
+                activeTasks.poll();
+            }
+            LocalDateTime end = ScheduleIndex.endOf(task);
+            for (Task activeTask : activeTasks) {
+                if (activeTask.getStartTime().isBefore(end) && !isSameOrOwnEpic(task, activeTask)) {
+                    conflicts.add(new ScheduleConflict(task, activeTask,
+                            "Указанное время уже занято, задачей из пакета: " + activeTask));
+                    break;
+                }
+            }
+            activeTasks.add(task);
+        }
+    }
+
+    static boolean isSameOrOwnEpic(Task task, Task existingTask) {
+        if (existingTask == task || (task.getId() != null && task.getId().equals(existingTask.getId()))) {
+            return true;
+        }
+        if (task instanceof SubTask subTask && existingTask.getId() != null
+                && existingTask.getId() == subTask.getEpicId()) {
+            return true;
+        }
+        return existingTask instanceof SubTask existingSubTask && task.getId() != null
+                && task.getId() == existingSubTask.getEpicId();
+    }
+
+    /**
+     * Восстанавливает сохраненные задачи без проверки пересечений и пересчета эпиков:
+     * задачи кладутся в хранилища и индексы напрямую, связи эпиков и счетчик id восстанавливаются за один проход.
+     *
+     * @param restoredTasks задачи, эпики и подзадачи с заполненными id
+     */
+    protected void restore(Collection<? extends Task> restoredTasks) {
+        Map<Long, List<Long>> epicSubTaskIds = new HashMap<>();
+        long maxId = id;
+        for (Task task : restoredTasks) {
+            if (task instanceof SubTask) {
+                continue;
+            }
+            if (task instanceof Epic epic) {
+                epics.put(epic.getId(), epic);
+            } else {
+                tasks.put(task.getId(), task);
+            }
+            restoreIndexes(task);
+            maxId = Math.max(maxId, task.getId());
+        }
+        for (Task task : restoredTasks) {
+            if (task instanceof SubTask subTask && epics.containsKey(subTask.getEpicId())) {
+                subTasks.put(subTask.getId(), subTask);
+                epicSubTaskIds.computeIfAbsent(subTask.getEpicId(), epicId -> new ArrayList<>()).add(subTask.getId());
+                restoreIndexes(subTask);
+                maxId = Math.max(maxId, subTask.getId());
+            }
+        }
+        epicSubTaskIds.forEach((epicId, ids) -> epics.get(epicId).setSubTaskIds(ids));
+        id = maxId;
+    }
+
+    /**
+     * Восстанавливает историю просмотров по сохраненным id в порядке от самого раннего просмотра,
+     * без обращения к getTask/getEpic/getSubTask. Id удаленных задач пропускаются.
+     * Раздельная по пользователям история не восстанавливается: в снимке нет сведений о пользователях.
+     *
+     * @param historyIds
+     */
+    protected void restoreHistory(List<Long> historyIds) {
+        if (historyManager.isPartitioned()) {
+            return;
+        }
+        for (Long historyId : historyIds) {
+            Task task = tasks.get(historyId);
+            if (task == null) {
+                task = epics.get(historyId);
+            }
+            if (task == null) {
+                task = subTasks.get(historyId);
+            }
+            if (task != null) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    private void restoreIndexes(Task task) {
+        if (task.getStartTime() != null && task.getDuration() != null) {
+            sortedTasks.put(task);
+            scheduleIndex.put(task);
+        }
+    }
+
+    /**
+     * Состояние менеджера для записи: копия из {@link #snapshot()} или коллекции самого менеджера из {@link #liveState()}.
+     *
+     * @param history id истории просмотров от самого раннего просмотра
+     */
+    record Snapshot(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks,
+                    List<Long> history) {
+        int size() {
+            return tasks.size() + epics.size() + subTasks.size();
+        }
+    }
+
+    /**
+     * Снимает состояние для записи вне блокировки менеджера: копируются только поля задач,
+     * без форматирования строк и вычисления отложенных описаний, поэтому снятие намного дешевле сериализации.
+     * Копии нужны, потому что эпики пересчитываются на месте, а задачи могут быть изменены вызывающим кодом.
+     *
+     * @return
+     */
+    Snapshot snapshot() {
+        List<Task> taskCopies = new ArrayList<>(tasks.size());
+        tasks.values().forEach(task -> taskCopies.add(new Task(task)));
+        List<Epic> epicCopies = new ArrayList<>(epics.size());
+        epics.values().forEach(epic -> epicCopies.add(new Epic(epic)));
+        List<SubTask> subTaskCopies = new ArrayList<>(subTasks.size());
+        subTasks.values().forEach(subTask -> subTaskCopies.add(new SubTask(subTask)));
+        return new Snapshot(taskCopies, epicCopies, subTaskCopies, historyIds());
+    }
+
+    /**
+     * Состояние без копирования задач для записи, которая выполняется, не отпуская блокировку менеджера:
+     * коллекции менеджера можно читать только до следующего изменения.
+     *
+     * @return
+     */
+    Snapshot liveState() {
+        return new Snapshot(tasks.values(), epics.values(), subTasks.values(), historyIds());
+    }
+
+    private List<Long> historyIds() {
+        return historyManager.isPartitioned() ? List.of()
+                : historyManager.getHistory().stream().map(Task::getId).toList();
+    }
+
     public List<Task> getTasks() {
         return tasks.values().stream().toList();
     }
@@ -201,7 +403,8 @@ public class InMemoryTaskManager implements TaskManager {
     public void clearTasks() {
         tasks.values().forEach(task -> {
             historyManager.remove(task.getId());
-            sortedTasks.remove(task);
+            sortedTasks.remove(task.getId());
+            scheduleIndex.remove(task.getId());
         });
         tasks.clear();
     }
@@ -209,11 +412,13 @@ public class InMemoryTaskManager implements TaskManager {
     public void clearEpics() {
         epics.values().forEach(epic -> {
             historyManager.remove(epic.getId());
-            sortedTasks.remove(epic);
+            sortedTasks.remove(epic.getId());
+            scheduleIndex.remove(epic.getId());
         });
         subTasks.values().forEach(subTask -> {
             historyManager.remove(subTask.getId());
-            sortedTasks.remove(subTask);
+            sortedTasks.remove(subTask.getId());
+            scheduleIndex.remove(subTask.getId());
         });
         epics.clear();
         subTasks.clear();
@@ -223,7 +428,8 @@ public class InMemoryTaskManager implements TaskManager {
     public void clearSubTasks() {
         subTasks.values().forEach(subTask -> {
             historyManager.remove(subTask.getId());
-            sortedTasks.remove(subTask);
+            sortedTasks.remove(subTask.getId());
+            scheduleIndex.remove(subTask.getId());
         });
         subTasks.clear();
     }
@@ -242,7 +448,8 @@ public class InMemoryTaskManager implements TaskManager {
                 .filter(task -> task.getId().equals(id))
                 .forEach(task -> {
                     historyManager.remove(task.getId());
-                    sortedTasks.remove(task);
+                    sortedTasks.remove(task.getId());
+                    scheduleIndex.remove(task.getId());
                 });
         tasks.remove(id);
     }
@@ -252,15 +459,15 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epic = this.getEpic(id);
         if (epic != null) {
             epic.getSubTaskIds().forEach(subtaskId -> {
-                sortedTasks.remove(subTasks.get(subtaskId));
+                sortedTasks.remove(subtaskId);
+                scheduleIndex.remove(subtaskId);
                 subTasks.remove(subtaskId);
                 historyManager.remove(subtaskId);
             });
             epics.remove(id);
             historyManager.remove(id);
-            if (sortedTasks.contains(epic)) {
-                sortedTasks.remove(epic);
-            }
+            sortedTasks.remove(id);
+            scheduleIndex.remove(id);
         }
     }
 
@@ -271,7 +478,8 @@ public class InMemoryTaskManager implements TaskManager {
             Epic epic = getEpic(subTask.getEpicId());
             subTasks.remove(subtaskId);
             historyManager.remove(subtaskId);
-            sortedTasks.remove(subTask);
+            sortedTasks.remove(subTask.getId());
+            scheduleIndex.remove(subtaskId);
             epic.getSubTaskIds().remove(subTask.getId());
             updateEpicAfterSubTaskChange(epic);
         }
@@ -283,6 +491,15 @@ public class InMemoryTaskManager implements TaskManager {
         }
         updateEpicStatus(epic);
         updateEpicTerm(epic);
+        if (sortedTasks.contains(epic.getId())) {
+            if (epic.getStartTime() != null) {
+                sortedTasks.put(epic);
+                scheduleIndex.put(epic);
+            } else {
+                sortedTasks.remove(epic.getId());
+                scheduleIndex.remove(epic.getId());
+            }
+        }
     }
 
     public void updateEpicTerm(Epic epic) {
@@ -365,24 +582,169 @@ public class InMemoryTaskManager implements TaskManager {
         return List.copyOf(historyManager.getHistory());
     }
 
+    /**
+     * @param userId
+     * @return история просмотров пользователя, см. {@link PartitionedHistoryManager}
+     */
+    @Override
+    public List<Task> getHistory(String userId) {
+        return List.copyOf(historyManager.getHistory(userId));
+    }
+
     /**
      * @return Task
      */
     @Override
     public List<Task> getPrioritizedTasks(boolean asc) {
-        return asc ? List.copyOf(sortedTasks) : List.copyOf(sortedTasks.descendingSet());
+        return List.copyOf(sortedTasks.view(asc).values());
+    }
+
+    /**
+     * @param from начало диапазона включительно, null - без ограничения
+     * @param to   конец диапазона не включительно, null - без ограничения
+     * @return задачи с startTime в диапазоне [from, to) по возрастанию
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return List.copyOf(sortedTasks.range(from, to).values());
+    }
+
+    /**
+     * @param asc
+     * @param offset
+     * @param limit
+     * @return не больше limit задач по приоритету, начиная с позиции offset
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(boolean asc, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new TaskValidationException("Некорректные параметры страницы: offset=" + offset + ", limit=" + limit);
+        }
+        return take(sortedTasks.view(asc).values(), offset, limit);
     }
 
-    private boolean isTaskTermIntercept(Task task1, Task task2) {
-        if (task1.getStartTime().isEqual(task2.getEndTime())) {
-            return false;
+    /**
+     * @param cursor курсор из предыдущей страницы, null - с начала списка
+     * @param limit
+     * @param asc    направление обхода; для возврата назад передается previousCursor и обратное направление
+     * @return страница задач, следующих за курсором в указанном направлении
+     */
+    @Override
+    public TaskPage getPrioritizedPage(String cursor, int limit, boolean asc) {
+        if (limit <= 0) {
+            throw new TaskValidationException("Размер страницы должен быть положительным: " + limit);
         }
-        if (task2.getStartTime().isEqual(task1.getEndTime())) {
-            return false;
+        NavigableMap<PrioritizedIndex.Key, Task> view = sortedTasks.view(asc);
+        if (cursor != null) {
+            view = view.tailMap(decodeCursor(cursor), false);
         }
-        if (task1.getStartTime().isBefore(task2.getEndTime()) && task2.getStartTime().isBefore(task1.getEndTime())) {
-            return true;
+        List<Task> pageTasks = take(view.values(), 0, limit + 1);
+        boolean hasNext = pageTasks.size() > limit;
+        if (hasNext) {
+            pageTasks = pageTasks.subList(0, limit);
+        }
+        String nextCursor = hasNext ? encodeCursor(pageTasks.get(pageTasks.size() - 1)) : null;
+        String previousCursor = pageTasks.isEmpty() ? null : encodeCursor(pageTasks.get(0));
+        return new TaskPage(List.copyOf(pageTasks), nextCursor, previousCursor);
+    }
+
+    private static List<Task> take(Collection<Task> view, int offset, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Task> iterator = view.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private String encodeCursor(Task task) {
+        return encodeCursor(sortedTasks.keyOf(task.getId()));
+    }
+
+    static String encodeCursor(PrioritizedIndex.Key key) {
+        String position = key.startTime() + "|" + key.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PrioritizedIndex.Key decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new PrioritizedIndex.Key(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new TaskValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    /**
+     * @param from
+     * @param duration
+     * @return начало ближайшего свободного окна заданной длительности, не раньше from
+     */
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return findFreeSlots(from, duration, 1).get(0);
+    }
+
+    /**
+     * @param from
+     * @param duration
+     * @param count
+     * @return начала count ближайших непересекающихся свободных окон, по возрастанию
+     */
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, Duration duration, int count) {
+        if (from == null || duration == null || duration.isNegative()) {
+            throw new TaskValidationException("Некорректные параметры поиска свободного окна: " + from + ", " + duration);
+        }
+        if (count <= 0) {
+            throw new TaskValidationException("Количество окон должно быть положительным: " + count);
+        }
+        List<LocalDateTime> freeSlots = new ArrayList<>(count);
+        LocalDateTime start = from;
+        for (int i = 0; i < count; i++) {
+            start = scheduleIndex.findFreeStart(start, duration);
+            freeSlots.add(start);
+            start = start.plus(duration);
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Проверяет, что индексы расписания содержат ровно задачи со сроками и без устаревших позиций.
+     *
+     * @throws IllegalStateException при нарушении инварианта
+     */
+    void checkIndexes() {
+        sortedTasks.checkInvariants();
+        long timedTasks = 0;
+        for (Map<Long, ? extends Task> storage : List.of(tasks, epics, subTasks)) {
+            for (Task task : storage.values()) {
+                boolean timed = task.getStartTime() != null && task.getDuration() != null
+                        && (!(task instanceof Epic) || sortedTasks.contains(task.getId()));
+                if (timed) {
+                    timedTasks++;
+                }
+                if (timed != sortedTasks.contains(task.getId()) || timed != scheduleIndex.contains(task.getId())) {
+                    throw new IllegalStateException("Индексы расписания не согласованы для задачи " + task);
+                }
+            }
+        }
+        if (timedTasks != sortedTasks.size() || timedTasks != scheduleIndex.size()) {
+            throw new IllegalStateException("В индексах расписания есть удаленные задачи");
+        }
+    }
+
+    private void checkTermIntercept(Task task, Long allowedId) {
+        Task taskIntercepted = scheduleIndex.findIntercept(task.getStartTime(), ScheduleIndex.endOf(task),
+                existingTask -> existingTask.getId().equals(task.getId())
+                        || existingTask.getId().equals(allowedId));
+        if (taskIntercepted != null) {
+            throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted);
         }
-        return false;
     }
 }
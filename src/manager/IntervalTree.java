@@ -0,0 +1,259 @@
+package manager;
+
+import models.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Индекс интервалов задач: AVL-дерево по (startTime, id), дополненное максимальным endTime поддерева.
+ * Поиск пересечений выполняется за O(log n + k).
+ */
+public class IntervalTree implements ScheduleIndex {
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node root;
+
+    private static class Node {
+        public final Task task;
+        public final Long id;
+        public final LocalDateTime start;
+        public final LocalDateTime end;
+        public LocalDateTime maxEnd;
+        public int height = 1;
+        public Node left;
+        public Node right;
+
+        public Node(Task task, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * Добавляет задачу в индекс, заменяя ранее добавленный интервал с тем же id.
+     *
+     * @param task задача с заполненными startTime и id
+     */
+    @Override
+    public void put(Task task) {
+        remove(task.getId());
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = ScheduleIndex.endOf(task);
+        if (start == null || end == null) {
+            return;
+        }
+        Node node = new Node(task, start, end);
+        root = insert(root, node);
+        nodes.put(node.id, node);
+    }
+
+    /**
+     * @param id
+     * @return true, если интервал был в индексе
+     */
+    @Override
+    public boolean remove(Long id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Long id) {
+        return nodes.containsKey(id);
+    }
+
+    LocalDateTime startTimeOf(Long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.start : null;
+    }
+
+    LocalDateTime endTimeOf(Long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.end : null;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @param exclude задачи, пересечение с которыми допустимо
+     * @return первая по startTime задача, пересекающаяся с [start, end), или null
+     */
+    @Override
+    public Task findIntercept(LocalDateTime start, LocalDateTime end, Predicate<Task> exclude) {
+        Node node = findFirst(root, start, end, exclude);
+        return node != null ? node.task : null;
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return все задачи, пересекающиеся с [start, end), в порядке startTime
+     */
+    @Override
+    public List<Task> findIntercepts(LocalDateTime start, LocalDateTime end) {
+        List<Task> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    private static boolean isIntercept(Node node, LocalDateTime start, LocalDateTime end) {
+        return node.start.isBefore(end) && start.isBefore(node.end);
+    }
+
+    private Node findFirst(Node node, LocalDateTime start, LocalDateTime end, Predicate<Task> exclude) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return null;
+        }
+        Node found = findFirst(node.left, start, end, exclude);
+        if (found != null) {
+            return found;
+        }
+        if (!node.start.isBefore(end)) {
+            return null;
+        }
+        if (isIntercept(node, start, end) && !exclude.test(node.task)) {
+            return node;
+        }
+        return findFirst(node.right, start, end, exclude);
+    }
+
+    private void collect(Node node, LocalDateTime start, LocalDateTime end, List<Task> result) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (!node.start.isBefore(end)) {
+            return;
+        }
+        if (isIntercept(node, start, end)) {
+            result.add(node.task);
+        }
+        collect(node.right, start, end, result);
+    }
+
+    private static int compare(LocalDateTime start1, Long id1, LocalDateTime start2, Long id2) {
+        int result = start1.compareTo(start2);
+        return result != 0 ? result : id1.compareTo(id2);
+    }
+
+    private Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node.start, node.id) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, LocalDateTime start, Long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node.start, node.id);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static void refresh(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private Node balance(Node node) {
+        refresh(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        refresh(node);
+        refresh(left);
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        refresh(node);
+        refresh(right);
+        return right;
+    }
+}
@@ -0,0 +1,935 @@
+package manager;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import exception.ManagerSaveException;
+import exception.TaskValidationException;
+import models.BatchResult;
+import models.Epic;
+import models.ScheduleConflict;
+import models.SubTask;
+import models.Task;
+import models.TaskPage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Менеджер, хранящий задачи во встраиваемой базе данных через JDBC, например H2 в файловом режиме
+ * (jdbc:h2:file:./kanban). Драйвер подключается при запуске, сам менеджер использует только java.sql.
+ * В памяти держится только история просмотров: операция меняет одну строку таблицы, а список по приоритету,
+ * диапазоны, страницы, проверка пересечений и поиск свободного окна выполняются запросами по индексу start_time.
+ * Запросы пересечений ограничены снизу: задача, которая заканчивается после from, начинается не раньше from минус
+ * наибольшая длина срока в таблице, поэтому индекс просматривается только в этом окне, а не с начала расписания.
+ * Наибольшая длина хранится в индексированном столбце span_seconds и при удалении задач не уменьшается.
+ * Пакетное создание задач и очистка выполняются одной транзакцией с пакетами подготовленных запросов.
+ */
+public class JdbcTaskManager implements TaskManager, AutoCloseable {
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS tasks ("
+                    + "id BIGINT NOT NULL, "
+                    + "type VARCHAR(16) NOT NULL, "
+                    + "name VARCHAR, "
+                    + "status VARCHAR(16), "
+                    + "description VARCHAR, "
+                    + "epic_id BIGINT, "
+                    + "start_time TIMESTAMP(9), "
+                    + "end_time TIMESTAMP(9), "
+                    + "finish_time TIMESTAMP(9), "
+                    + "duration_minutes BIGINT NOT NULL, "
+                    + "prioritized BOOLEAN NOT NULL, "
+                    + "span_seconds BIGINT, "
+                    + "PRIMARY KEY (id, type))",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_epic_id ON tasks (epic_id)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_start_time ON tasks (start_time, id)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks (status)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_span ON tasks (span_seconds)"
+    };
+    private static final String COLUMNS = "id, type, name, status, description, epic_id, start_time, end_time, "
+            + "duration_minutes";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM tasks ";
+    private static final String INSERT = "INSERT INTO tasks (name, status, description, epic_id, start_time, "
+            + "end_time, finish_time, duration_minutes, prioritized, span_seconds, id, type) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE tasks SET name = ?, status = ?, description = ?, epic_id = ?, "
+            + "start_time = ?, end_time = ?, finish_time = ?, duration_minutes = ?, prioritized = ?, span_seconds = ? "
+            + "WHERE id = ? AND type = ?";
+    private static final String TYPE_ORDER = "ORDER BY CASE type WHEN 'TASK' THEN 0 WHEN 'EPIC' THEN 1 ELSE 2 END, id";
+    private static final String INTERCEPT = SELECT + "WHERE prioritized AND start_time < ? AND start_time >= ? "
+            + "AND finish_time > ? "
+            + "AND id <> ? AND id <> ? AND (epic_id IS NULL OR epic_id <> ?) "
+            + "ORDER BY start_time, id FETCH FIRST 1 ROWS ONLY";
+    private static final String ORDER_ASC = "ORDER BY start_time ASC, id ASC ";
+    private static final String ORDER_DESC = "ORDER BY start_time DESC, id DESC ";
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    private final HistoryManager historyManager;
+    private final String url;
+    private final Connection connection;
+    private long id;
+    private long maxSpanSeconds;
+
+    @FunctionalInterface
+    private interface SqlAction<R> {
+        R run() throws SQLException;
+    }
+
+    public JdbcTaskManager(HistoryManager historyManager, String url) {
+        this(historyManager, url, null, null);
+    }
+
+    /**
+     * Открывает соединение, создает таблицу и индексы, если их нет, и продолжает нумерацию с наибольшего id.
+     *
+     * @param historyManager
+     * @param url      адрес базы данных JDBC
+     * @param user     пользователь, null - без учетных данных
+     * @param password
+     */
+    public JdbcTaskManager(HistoryManager historyManager, String url, String user, String password) {
+        this.historyManager = historyManager;
+        this.url = url;
+        try {
+            this.connection = user == null ? DriverManager.getConnection(url)
+                    : DriverManager.getConnection(url, user, password);
+        } catch (SQLException e) {
+            throw new ManagerSaveException("Не удается подключиться к базе данных: " + url, e);
+        }
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            close();
+            throw new ManagerSaveException("Не удается подключиться к базе данных: " + url, e);
+        }
+        inTransaction(() -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+                try (ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM tasks")) {
+                    resultSet.next();
+                    id = resultSet.getLong(1);
+                }
+                try (ResultSet resultSet = statement.executeQuery("SELECT MAX(span_seconds) FROM tasks")) {
+                    resultSet.next();
+                    maxSpanSeconds = resultSet.getLong(1);
+                }
+            }
+            return null;
+        });
+    }
+
+    public synchronized long nextId() {
+        return ++id;
+    }
+
+    /**
+     * Выполняет действие в транзакции: фиксирует ее при успехе и откатывает при любой ошибке.
+     */
+    private synchronized <R> R inTransaction(SqlAction<R> action) {
+        try {
+            R result = action.run();
+            connection.commit();
+            return result;
+        } catch (SQLException e) {
+            rollback();
+            throw new ManagerSaveException("Ошибка при работе с базой данных: " + url, e);
+        } catch (RuntimeException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+            // исходная ошибка важнее ошибки отката
+        }
+    }
+
+    /**
+     * Закрывает соединение с базой данных.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new ManagerSaveException("Ошибка при закрытии базы данных: " + url, e);
+        }
+    }
+
+    @Override
+    public Long create(Task task) {
+        return inTransaction(() -> {
+            boolean generated = assignId(task);
+            if (task.getStartTime() != null) {
+                checkTermIntercept(task, null);
+            }
+            write(task, generated);
+            return task.getId();
+        });
+    }
+
+    @Override
+    public boolean update(Task task) {
+        if (task.getId() == null) {
+            return false;
+        }
+        return inTransaction(() -> {
+            if (task.getStartTime() != null) {
+                checkTermIntercept(task, null);
+            }
+            write(task, false);
+            return true;
+        });
+    }
+
+    @Override
+    public Long create(Epic epic) {
+        return create((Task) epic);
+    }
+
+    @Override
+    public boolean update(Epic epic) {
+        return update((Task) epic);
+    }
+
+    @Override
+    public Long create(SubTask subTask) {
+        return inTransaction(() -> {
+            if (!isEpic(subTask.getEpicId())) {
+                return null;
+            }
+            Long previousEpicId = subTask.getId() == null ? null : findEpicId(subTask.getId());
+            boolean generated = assignId(subTask);
+            if (subTask.getStartTime() != null) {
+                checkTermIntercept(subTask, subTask.getEpicId());//epic exclude
+            }
+            write(subTask, generated);
+            updateEpics(previousEpicId, subTask.getEpicId());
+            return subTask.getId();
+        });
+    }
+
+    @Override
+    public boolean update(SubTask subTask) {
+        if (subTask.getId() == null) {
+            return false;
+        }
+        return inTransaction(() -> {
+            if (!isEpic(subTask.getEpicId())) {
+                return false;
+            }
+            Long previousEpicId = findEpicId(subTask.getId());
+            if (subTask.getStartTime() != null) {
+                checkTermIntercept(subTask, subTask.getEpicId());//epic exclude
+            }
+            write(subTask, false);
+            updateEpics(previousEpicId, subTask.getEpicId());
+            return true;
+        });
+    }
+
+    /**
+     * Проверяет пакет целиком и создает все задачи одной транзакцией, только если конфликтов нет.
+     * Пересечения с сохраненным расписанием ищутся запросом по индексу, внутри пакета - одним проходом
+     * по задачам, отсортированным по startTime. Строки вставляются пакетом подготовленного запроса.
+     *
+     * @param batch задачи, эпики и подзадачи; подзадача может ссылаться на эпик из этого же пакета по id
+     * @return созданные id или полный список конфликтов
+     */
+    @Override
+    public BatchResult createAll(Collection<? extends Task> batch) {
+        return inTransaction(() -> {
+            List<ScheduleConflict> conflicts = new ArrayList<>();
+            Set<Long> batchEpicIds = new HashSet<>();
+            Map<Long, Boolean> knownEpics = new HashMap<>();
+            List<Task> timedTasks = new ArrayList<>();
+            for (Task task : batch) {
+                if (task instanceof Epic && task.getId() != null) {
+                    batchEpicIds.add(task.getId());
+                }
+            }
+            try (PreparedStatement intercept = connection.prepareStatement(INTERCEPT)) {
+                for (Task task : batch) {
+                    if (task instanceof SubTask subTask && !batchEpicIds.contains(subTask.getEpicId())
+                            && !knownEpics.computeIfAbsent(subTask.getEpicId(), this::isEpicUnchecked)) {
+                        conflicts.add(new ScheduleConflict(task, null, "Не найден эпик: " + subTask.getEpicId()));
+                    }
+                    if (task.getStartTime() != null) {
+                        timedTasks.add(task);
+                        Task taskIntercepted = findIntercept(intercept, task, task.getId(),
+                                task instanceof SubTask subTask ? subTask.getEpicId() : null, task.getId());
+                        if (taskIntercepted != null) {
+                            conflicts.add(new ScheduleConflict(task, taskIntercepted,
+                                    "Указанное время уже занято, задачей: " + taskIntercepted));
+                        }
+                    }
+                }
+            }
+            InMemoryTaskManager.checkBatchIntercepts(timedTasks, conflicts);
+            if (!conflicts.isEmpty()) {
+                return new BatchResult(List.of(), List.copyOf(conflicts));
+            }
+            List<Task> ordered = new ArrayList<>(batch.size());
+            batch.stream().filter(task -> task instanceof Epic).forEach(ordered::add);
+            batch.stream().filter(task -> !(task instanceof Epic) && !(task instanceof SubTask)).forEach(ordered::add);
+            batch.stream().filter(task -> task instanceof SubTask).forEach(ordered::add);
+            Set<Long> affectedEpicIds = new LinkedHashSet<>();
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM tasks WHERE id = ? AND type = ?");
+                 PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (Task task : ordered) {
+                    if (task.getId() != null) {
+                        Long previousEpicId = task instanceof SubTask ? findEpicId(task.getId()) : null;
+                        if (previousEpicId != null) {
+                            affectedEpicIds.add(previousEpicId);
+                        }
+                        delete.setLong(1, task.getId());
+                        delete.setString(2, typeOf(task).name());
+                        delete.addBatch();
+                    }
+                    assignId(task);
+                    if (task instanceof SubTask subTask) {
+                        affectedEpicIds.add(subTask.getEpicId());
+                    }
+                    bind(insert, task);
+                    insert.addBatch();
+                }
+                delete.executeBatch();
+                insert.executeBatch();
+            }
+            for (Long epicId : affectedEpicIds) {
+                updateEpic(epicId);
+            }
+            List<Long> ids = new ArrayList<>(batch.size());
+            batch.forEach(task -> ids.add(task.getId()));
+            return new BatchResult(ids, List.of());
+        });
+    }
+
+    /**
+     * Назначает задаче новый id, если он не задан, и сдвигает нумерацию за явно заданный id.
+     *
+     * @return true, если id назначен менеджером и строки с таким id еще нет
+     */
+    private boolean assignId(Task task) {
+        if (task.getId() == null) {
+            task.setId(nextId());
+            return true;
+        }
+        id = Math.max(id, task.getId());
+        return false;
+    }
+
+    /**
+     * Сохраняет строку задачи: новую - вставкой, с заданным id - обновлением или вставкой, если строки нет.
+     */
+    private void write(Task task, boolean inserted) throws SQLException {
+        if (!inserted) {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                bind(update, task);
+                if (update.executeUpdate() > 0) {
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            bind(insert, task);
+            insert.executeUpdate();
+        }
+    }
+
+    private void bind(PreparedStatement statement, Task task) throws SQLException {
+        statement.setString(1, task.getName());
+        statement.setString(2, task.getStatus() == null ? null : task.getStatus().name());
+        statement.setString(3, task.getDescription());
+        if (task instanceof SubTask subTask) {
+            statement.setLong(4, subTask.getEpicId());
+        } else {
+            statement.setNull(4, Types.BIGINT);
+        }
+        setDateTime(statement, 5, task.getStartTime());
+        setDateTime(statement, 6, task instanceof Epic ? task.getEndTime() : null);
+        setDateTime(statement, 7, ScheduleIndex.endOf(task));
+        statement.setLong(8, task.getDuration().toMinutes());
+        statement.setBoolean(9, task.getStartTime() != null);
+        setSpan(statement, 10, task);
+        statement.setLong(11, task.getId());
+        statement.setString(12, typeOf(task).name());
+    }
+
+    /**
+     * Записывает длину срока задачи в секундах с округлением вверх и расширяет наибольшую длину.
+     * Если транзакция затем откатится, наибольшая длина останется завышенной, что не нарушает поиск пересечений.
+     */
+    private void setSpan(PreparedStatement statement, int index, Task task) throws SQLException {
+        LocalDateTime end = ScheduleIndex.endOf(task);
+        if (end == null) {
+            statement.setNull(index, Types.BIGINT);
+            return;
+        }
+        Duration span = Duration.between(task.getStartTime(), end);
+        long spanSeconds = Math.max(0, span.getSeconds() + (span.getNano() > 0 ? 1 : 0));
+        maxSpanSeconds = Math.max(maxSpanSeconds, spanSeconds);
+        statement.setLong(index, spanSeconds);
+    }
+
+    /**
+     * @return самое раннее начало задачи, которая может заканчиваться после from
+     */
+    private LocalDateTime earliestStart(LocalDateTime from) {
+        return from.minusSeconds(maxSpanSeconds);
+    }
+
+    private static TaskType typeOf(Task task) {
+        return task instanceof SubTask ? TaskType.SUBTASK : task instanceof Epic ? TaskType.EPIC : TaskType.TASK;
+    }
+
+    private static void setDateTime(PreparedStatement statement, int index, LocalDateTime dateTime)
+            throws SQLException {
+        if (dateTime == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setObject(index, dateTime);
+        }
+    }
+
+    private static Task read(ResultSet resultSet) throws SQLException {
+        long taskId = resultSet.getLong(1);
+        TaskType type = TaskType.valueOf(resultSet.getString(2));
+        String name = resultSet.getString(3);
+        String status = resultSet.getString(4);
+        TaskStatus taskStatus = status == null ? null : TaskStatus.valueOf(status);
+        String description = resultSet.getString(5);
+        long epicId = resultSet.getLong(6);
+        LocalDateTime startTime = resultSet.getObject(7, LocalDateTime.class);
+        LocalDateTime endTime = resultSet.getObject(8, LocalDateTime.class);
+        Duration duration = Duration.ofMinutes(resultSet.getLong(9));
+
+        return switch (type) {
+            case TASK -> new Task(taskId, name, description, taskStatus, startTime, duration);
+            case EPIC -> new Epic(taskId, name, description, taskStatus, startTime, endTime, duration);
+            case SUBTASK -> new SubTask(taskId, epicId, name, description, taskStatus, startTime, duration);
+        };
+    }
+
+    /**
+     * Выполняет запрос и читает задачи; эпикам заполняются id подзадач.
+     */
+    private List<Task> query(String sql, Object... parameters) throws SQLException {
+        List<Task> result = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.add(read(resultSet));
+                }
+            }
+        }
+        for (Task task : result) {
+            if (task instanceof Epic epic) {
+                epic.setSubTaskIds(findSubTaskIds(epic.getId()));
+            }
+        }
+        return result;
+    }
+
+    private Task find(Long taskId, TaskType type) throws SQLException {
+        if (taskId == null) {
+            return null;
+        }
+        List<Task> found = type == null ? query(SELECT + "WHERE id = ? " + TYPE_ORDER, taskId)
+                : query(SELECT + "WHERE id = ? AND type = ?", taskId, type.name());
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private List<Long> findSubTaskIds(Long epicId) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM tasks WHERE epic_id = ? ORDER BY id")) {
+            statement.setLong(1, epicId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private Long findEpicId(Long subTaskId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT epic_id FROM tasks WHERE id = ? AND type = ?")) {
+            statement.setLong(1, subTaskId);
+            statement.setString(2, TaskType.SUBTASK.name());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+
+    private boolean isEpic(long epicId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM tasks WHERE id = ? AND type = ?")) {
+            statement.setLong(1, epicId);
+            statement.setString(2, TaskType.EPIC.name());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private boolean isEpicUnchecked(long epicId) {
+        try {
+            return isEpic(epicId);
+        } catch (SQLException e) {
+            throw new ManagerSaveException("Ошибка при работе с базой данных: " + url, e);
+        }
+    }
+
+    private void checkTermIntercept(Task task, Long allowedId) throws SQLException {
+        Task taskIntercepted;
+        try (PreparedStatement intercept = connection.prepareStatement(INTERCEPT)) {
+            taskIntercepted = findIntercept(intercept, task, task.getId(), allowedId, null);
+        }
+        if (taskIntercepted != null) {
+            throw new TaskValidationException("Указанное время уже занято, задачей: " + taskIntercepted);
+        }
+    }
+
+    /**
+     * Ищет в сохраненном расписании задачу, срок которой пересекается со сроком задачи.
+     *
+     * @param excludedId     id, который не считается пересечением, обычно id самой задачи
+     * @param allowedId      еще один допустимый id, например эпик подзадачи
+     * @param excludedEpicId подзадачи этого эпика не считаются пересечением
+     */
+    private Task findIntercept(PreparedStatement intercept, Task task, Long excludedId, Long allowedId,
+                               Long excludedEpicId) throws SQLException {
+        setDateTime(intercept, 1, ScheduleIndex.endOf(task));
+        setDateTime(intercept, 2, earliestStart(task.getStartTime()));
+        setDateTime(intercept, 3, task.getStartTime());
+        intercept.setLong(4, excludedId == null ? NO_ID : excludedId);
+        intercept.setLong(5, allowedId == null ? NO_ID : allowedId);
+        intercept.setLong(6, excludedEpicId == null ? NO_ID : excludedEpicId);
+        try (ResultSet resultSet = intercept.executeQuery()) {
+            return resultSet.next() ? read(resultSet) : null;
+        }
+    }
+
+    private void updateEpics(Long previousEpicId, long epicId) throws SQLException {
+        if (previousEpicId != null && previousEpicId != epicId) {
+            updateEpic(previousEpicId);
+        }
+        updateEpic(epicId);
+    }
+
+    /**
+     * Пересчитывает статус и сроки эпика одним агрегирующим запросом по индексу epic_id.
+     * Эпик остается в списке по приоритету, пока у него есть начало.
+     */
+    private void updateEpic(long epicId) throws SQLException {
+        Task stored = find(epicId, TaskType.EPIC);
+        if (!(stored instanceof Epic epic)) {
+            return;
+        }
+        long count;
+        long countInDone;
+        long countInNew;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*), "
+                + "SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN status = 'NEW' THEN 1 ELSE 0 END), "
+                + "MIN(start_time), MAX(finish_time), "
+                + "SUM(CASE WHEN start_time IS NOT NULL THEN duration_minutes ELSE 0 END) "
+                + "FROM tasks WHERE epic_id = ?")) {
+            statement.setLong(1, epicId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                count = resultSet.getLong(1);
+                countInDone = resultSet.getLong(2);
+                countInNew = resultSet.getLong(3);
+                if (count == 0) {
+                    epic.setDuration(0L);
+                } else {
+                    epic.setStartTime(resultSet.getObject(4, LocalDateTime.class));
+                    epic.setEndTime(resultSet.getObject(5, LocalDateTime.class));
+                    epic.setDuration(resultSet.getLong(6));
+                }
+            }
+        }
+        if (count == 0 || countInNew == count) {
+            epic.setStatus(TaskStatus.NEW);
+        } else if (countInDone == count) {
+            epic.setStatus(TaskStatus.DONE);
+        } else {
+            epic.setStatus(TaskStatus.IN_PROGRESS);
+        }
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE tasks SET status = ?, "
+                + "start_time = ?, end_time = ?, finish_time = ?, duration_minutes = ?, "
+                + "prioritized = prioritized AND ?, span_seconds = ? WHERE id = ? AND type = ?")) {
+            statement.setString(1, epic.getStatus().name());
+            setDateTime(statement, 2, epic.getStartTime());
+            setDateTime(statement, 3, epic.getEndTime());
+            setDateTime(statement, 4, ScheduleIndex.endOf(epic));
+            statement.setLong(5, epic.getDuration().toMinutes());
+            statement.setBoolean(6, epic.getStartTime() != null);
+            setSpan(statement, 7, epic);
+            statement.setLong(8, epicId);
+            statement.setString(9, TaskType.EPIC.name());
+            statement.executeUpdate();
+        }
+    }
+
+    @Override
+    public Task getTask(Long id) {
+        return view(id, TaskType.TASK);
+    }
+
+    @Override
+    public Epic getEpic(Long id) {
+        return (Epic) view(id, TaskType.EPIC);
+    }
+
+    @Override
+    public SubTask getSubTask(Long id) {
+        return (SubTask) view(id, TaskType.SUBTASK);
+    }
+
+    private Task view(Long taskId, TaskType type) {
+        Task task = inTransaction(() -> find(taskId, type));
+        if (task != null) {
+            historyManager.add(task);
+        }
+        return task;
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasksByEpicId(Long id) {
+        Epic epic = getEpic(id);
+        List<SubTask> epicSubTasks = new ArrayList<>();
+        if (epic != null) {
+            inTransaction(() -> query(SELECT + "WHERE epic_id = ? ORDER BY id", id))
+                    .forEach(subTask -> epicSubTasks.add((SubTask) subTask));
+        }
+        return epicSubTasks;
+    }
+
+    @Override
+    public void clearTasks() {
+        inTransaction(() -> deleteByType(TaskType.TASK));
+        removeFromHistory(Task.class);
+    }
+
+    @Override
+    public void clearEpics() {
+        inTransaction(() -> deleteByType(TaskType.SUBTASK, TaskType.EPIC));
+        removeFromHistory(Epic.class);
+        removeFromHistory(SubTask.class);
+    }
+
+    /**
+     * Удаляет подзадачи и одним запросом сбрасывает статус и длительность их эпиков.
+     */
+    @Override
+    public void clearSubTasks() {
+        inTransaction(() -> {
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE tasks SET status = ?, "
+                    + "duration_minutes = 0 WHERE type = ? AND id IN (SELECT epic_id FROM tasks WHERE type = ?)")) {
+                statement.setString(1, TaskStatus.NEW.name());
+                statement.setString(2, TaskType.EPIC.name());
+                statement.setString(3, TaskType.SUBTASK.name());
+                statement.executeUpdate();
+            }
+            return deleteByType(TaskType.SUBTASK);
+        });
+        removeFromHistory(SubTask.class);
+    }
+
+    @Override
+    public void clear() {
+        inTransaction(() -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM tasks");
+            }
+            id = 0;
+            return null;
+        });
+        historyManager.getAllHistory().forEach(task -> historyManager.remove(task.getId()));
+    }
+
+    private int[] deleteByType(TaskType... types) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM tasks WHERE type = ?")) {
+            for (TaskType type : types) {
+                statement.setString(1, type.name());
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    /**
+     * Удаляет из истории просмотров задачи ровно указанного класса, не читая удаленные строки из базы.
+     */
+    private void removeFromHistory(Class<? extends Task> type) {
+        historyManager.getAllHistory().stream()
+                .filter(task -> task.getClass() == type)
+                .map(Task::getId)
+                .toList()
+                .forEach(historyManager::remove);
+    }
+
+    @Override
+    public void removeTask(Long id) {
+        inTransaction(() -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM tasks WHERE id = ? AND type = ?")) {
+                statement.setObject(1, id);
+                statement.setString(2, TaskType.TASK.name());
+                return statement.executeUpdate();
+            }
+        });
+        historyManager.remove(id);
+    }
+
+    @Override
+    public void removeEpic(Long id) {
+        Epic epic = getEpic(id);
+        if (epic != null) {
+            inTransaction(() -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM tasks WHERE (id = ? AND type = ?) OR epic_id = ?")) {
+                    statement.setLong(1, id);
+                    statement.setString(2, TaskType.EPIC.name());
+                    statement.setLong(3, id);
+                    return statement.executeUpdate();
+                }
+            });
+            epic.getSubTaskIds().forEach(historyManager::remove);
+            historyManager.remove(id);
+        }
+    }
+
+    @Override
+    public void removeSubTask(Long subtaskId) {
+        boolean removed = inTransaction(() -> {
+            Long epicId = subtaskId == null ? null : findEpicId(subtaskId);
+            if (epicId == null) {
+                return false;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM tasks WHERE id = ? AND type = ?")) {
+                statement.setLong(1, subtaskId);
+                statement.setString(2, TaskType.SUBTASK.name());
+                statement.executeUpdate();
+            }
+            updateEpic(epicId);
+            return true;
+        });
+        if (removed) {
+            historyManager.remove(subtaskId);
+        }
+    }
+
+    @Override
+    public List<String> getAllTasksText() {
+        List<String> resultText = new ArrayList<>();
+        inTransaction(() -> {
+            List<Task> all = new ArrayList<>();
+            Map<Long, Epic> epicsById = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(SELECT + TYPE_ORDER);
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Task task = read(resultSet);
+                    if (task instanceof Epic epic) {
+                        epicsById.put(epic.getId(), epic);
+                    } else if (task instanceof SubTask subTask && epicsById.containsKey(subTask.getEpicId())) {
+                        epicsById.get(subTask.getEpicId()).setSubTaskId(subTask.getId());
+                    }
+                    all.add(task);
+                }
+            }
+            all.forEach(task -> resultText.add(task.toString()));
+            return null;
+        });
+        return resultText;
+    }
+
+    @Override
+    public Task getById(Long id) {
+        return view(id, null);
+    }
+
+    /**
+     * @return Task
+     */
+    @Override
+    public List<Task> getHistory() {
+        return List.copyOf(historyManager.getHistory());
+    }
+
+    /**
+     * @param userId
+     * @return история просмотров пользователя, см. {@link PartitionedHistoryManager}
+     */
+    @Override
+    public List<Task> getHistory(String userId) {
+        return List.copyOf(historyManager.getHistory(userId));
+    }
+
+    /**
+     * @return Task
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(boolean asc) {
+        return inTransaction(() -> List.copyOf(query(SELECT + "WHERE prioritized " + (asc ? ORDER_ASC : ORDER_DESC))));
+    }
+
+    /**
+     * @param from начало диапазона включительно, null - без ограничения
+     * @param to   конец диапазона не включительно, null - без ограничения
+     * @return задачи с startTime в диапазоне [from, to) по возрастанию
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE prioritized ");
+        List<Object> parameters = new ArrayList<>(2);
+        if (from != null) {
+            sql.append("AND start_time >= ? ");
+            parameters.add(from);
+        }
+        if (to != null) {
+            sql.append("AND start_time < ? ");
+            parameters.add(to);
+        }
+        sql.append(ORDER_ASC);
+        return inTransaction(() -> List.copyOf(query(sql.toString(), parameters.toArray())));
+    }
+
+    /**
+     * @param asc
+     * @param offset
+     * @param limit
+     * @return не больше limit задач по приоритету, начиная с позиции offset
+     */
+    @Override
+    public List<Task> getPrioritizedTasks(boolean asc, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new TaskValidationException("Некорректные параметры страницы: offset=" + offset + ", limit=" + limit);
+        }
+        return inTransaction(() -> List.copyOf(query(SELECT + "WHERE prioritized " + (asc ? ORDER_ASC : ORDER_DESC)
+                + "OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", offset, limit)));
+    }
+
+    /**
+     * Страница по ключу (startTime, id): запрос продолжает обход индекса сразу за курсором без пропуска строк.
+     *
+     * @param cursor курсор из предыдущей страницы, null - с начала списка
+     * @param limit
+     * @param asc    направление обхода; для возврата назад передается previousCursor и обратное направление
+     * @return страница задач, следующих за курсором в указанном направлении
+     */
+    @Override
+    public TaskPage getPrioritizedPage(String cursor, int limit, boolean asc) {
+        if (limit <= 0) {
+            throw new TaskValidationException("Размер страницы должен быть положительным: " + limit);
+        }
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE prioritized ");
+        List<Object> parameters = new ArrayList<>(4);
+        if (cursor != null) {
+            PrioritizedIndex.Key key = InMemoryTaskManager.decodeCursor(cursor);
+            String compare = asc ? ">" : "<";
+            sql.append("AND (start_time ").append(compare).append(" ? OR (start_time = ? AND id ")
+                    .append(compare).append(" ?)) ");
+            parameters.add(key.startTime());
+            parameters.add(key.startTime());
+            parameters.add(key.id());
+        }
+        sql.append(asc ? ORDER_ASC : ORDER_DESC).append("FETCH FIRST ? ROWS ONLY");
+        parameters.add(limit + 1);
+        List<Task> pageTasks = inTransaction(() -> query(sql.toString(), parameters.toArray()));
+        boolean hasNext = pageTasks.size() > limit;
+        if (hasNext) {
+            pageTasks = pageTasks.subList(0, limit);
+        }
+        String nextCursor = hasNext ? encodeCursor(pageTasks.get(pageTasks.size() - 1)) : null;
+        String previousCursor = pageTasks.isEmpty() ? null : encodeCursor(pageTasks.get(0));
+        return new TaskPage(List.copyOf(pageTasks), nextCursor, previousCursor);
+    }
+
+    private static String encodeCursor(Task task) {
+        return InMemoryTaskManager.encodeCursor(new PrioritizedIndex.Key(task.getStartTime(), task.getId()));
+    }
+
+    /**
+     * @param from
+     * @param duration
+     * @return начало ближайшего свободного окна заданной длительности, не раньше from
+     */
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return findFreeSlots(from, duration, 1).get(0);
+    }
+
+    /**
+     * На каждом шаге окно сдвигается на самое позднее окончание пересекающихся с ним задач,
+     * которое возвращает один агрегирующий запрос.
+     *
+     * @param from
+     * @param duration
+     * @param count
+     * @return начала count ближайших непересекающихся свободных окон, по возрастанию
+     */
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, Duration duration, int count) {
+        if (from == null || duration == null || duration.isNegative()) {
+            throw new TaskValidationException("Некорректные параметры поиска свободного окна: " + from + ", " + duration);
+        }
+        if (count <= 0) {
+            throw new TaskValidationException("Количество окон должно быть положительным: " + count);
+        }
+        return inTransaction(() -> {
+            List<LocalDateTime> freeSlots = new ArrayList<>(count);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT MAX(finish_time) FROM tasks "
+                    + "WHERE prioritized AND start_time < ? AND start_time >= ? AND finish_time > ?")) {
+                LocalDateTime start = from;
+                while (freeSlots.size() < count) {
+                    statement.setObject(1, start.plus(duration));
+                    statement.setObject(2, earliestStart(start));
+                    statement.setObject(3, start);
+                    LocalDateTime latestEnd;
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        latestEnd = resultSet.getObject(1, LocalDateTime.class);
+                    }
+                    if (latestEnd == null) {
+                        freeSlots.add(start);
+                        start = start.plus(duration);
+                    } else {
+                        start = latestEnd;
+                    }
+                }
+            }
+            return freeSlots;
+        });
+    }
+}
@@ -0,0 +1,390 @@
+package manager;
+
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер с журналом изменений: каждая операция дописывает в журнал одну запись вместо перезаписи всего файла.
+ * Фоновое уплотнение периодически сворачивает журнал в свежий снимок в формате {@link FileBackedTaskManager}.
+ * При запуске загружается снимок и применяется хвост журнала.
+ */
+public class JournaledTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    public static final int DEFAULT_COMPACT_EVERY = 10_000;
+    private static final char UPSERT = 'U';
+    private static final char DELETE = 'D';
+    private static final char CLEAR = 'C';
+
+    private final File file;
+    private final File journalFile;
+    private final File compactingJournalFile;
+    private final int compactEvery;
+    private final ExecutorService compactor;
+    private final Object compactionLock = new Object();
+    private Writer journal;
+    private int journalRecords;
+    private boolean compactionScheduled;
+    private volatile ManagerSaveException compactionError;
+
+    public JournaledTaskManager(HistoryManager historyManager, File file) {
+        this(historyManager, file, DEFAULT_COMPACT_EVERY);
+    }
+
+    /**
+     * @param historyManager
+     * @param file         файл снимка; журнал хранится рядом с суффиксом .journal
+     * @param compactEvery количество записей журнала, после которого запускается фоновое уплотнение
+     */
+    public JournaledTaskManager(HistoryManager historyManager, File file, int compactEvery) {
+        super(historyManager);
+        this.file = file;
+        this.journalFile = new File(file.getPath() + ".journal");
+        this.compactingJournalFile = new File(file.getPath() + ".journal.compacting");
+        this.compactEvery = compactEvery;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int replayed = recover();
+        journal = openJournal();
+        if (replayed > 0) {
+            compact();
+        }
+    }
+
+    private int recover() {
+        Map<Long, Task> state = new LinkedHashMap<>();
+        if (file.exists() && file.length() > 0) {
+            FileBackedTaskManager.readTasks(file).forEach(task -> state.put(task.getId(), task));
+        }
+        int replayed = replay(compactingJournalFile, state) + replay(journalFile, state);
+        restore(state.values());
+        return replayed;
+    }
+
+    private int replay(File journalFile, Map<Long, Task> state) {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line = readRecord(reader);
+            while (line != null) {
+                lineNumber++;
+                String next = readRecord(reader);
+                try {
+                    apply(line, state);
+                } catch (Exception e) {
+                    if (next != null) {
+                        throw new ManagerSaveException("При чтении журнала: " + journalFile.getAbsolutePath()
+                                + " . " + "Возникла ошибка при разборе строки № " + lineNumber, e);
+                    }
+                    // оборванная при сбое последняя запись не была подтверждена и отбрасывается
+                }
+                line = next;
+            }
+            return lineNumber;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала: " + journalFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Читает запись журнала до '\n' вне кавычек, как {@link CsvStreamReader}: строковые поля в кавычках
+     * могут содержать '\n' и '\r', которые сохраняются без изменений.
+     *
+     * @return запись без завершающего '\n' или null, если журнал прочитан
+     */
+    private static String readRecord(BufferedReader reader) throws IOException {
+        StringBuilder record = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && (c != '\n' || quoted)) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            record.append((char) c);
+            c = reader.read();
+        }
+        return record.toString();
+    }
+
+    private static void apply(String record, Map<Long, Task> state) {
+        String payload = record.substring(2);
+        switch (record.charAt(0)) {
+            case UPSERT -> {
+                Task task = FileBackedTaskManager.fromString(payload);
+                state.put(task.getId(), task);
+            }
+            case DELETE -> state.remove(Long.parseLong(payload));
+            case CLEAR -> {
+                TaskType type = TaskType.valueOf(payload);
+                state.values().removeIf(task -> switch (type) {
+                    case TASK -> !(task instanceof Epic) && !(task instanceof SubTask);
+                    case EPIC -> task instanceof Epic || task instanceof SubTask;
+                    case SUBTASK -> task instanceof SubTask;
+                });
+            }
+            default -> throw new ManagerSaveException("Неизвестный тип записи журнала: " + record, null);
+        }
+    }
+
+    private Writer openJournal() {
+        try {
+            return Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удается открыть журнал: " + journalFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void append(char type, String payload) {
+        try {
+            journal.write(type);
+            journal.write(',');
+            journal.write(payload);
+            journal.write('\n');
+            journal.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + journalFile.getAbsolutePath(), e);
+        }
+        if (++journalRecords >= compactEvery && !compactionScheduled) {
+            compactionScheduled = true;
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (ManagerSaveException e) {
+                    compactionError = e;
+                }
+            });
+        }
+    }
+
+    private void appendUpsert(Task task) {
+        if (task != null) {
+            append(UPSERT, FileBackedTaskManager.toString(task));
+        }
+    }
+
+    /**
+     * Сворачивает журнал в новый снимок. Под блокировкой менеджера журнал только переключается на новый файл
+     * и снимается состояние; запись снимка идет без нее, и изменения продолжают попадать в новый журнал.
+     * Уплотнения выполняются по одному под отдельной блокировкой: иначе более раннее уплотнение могло бы
+     * записать свой снимок поверх более нового, когда сворачиваемый журнал уже удален.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            InMemoryTaskManager.Snapshot state;
+            synchronized (this) {
+                compactionScheduled = false;
+                try {
+                    journal.close();
+                    if (compactingJournalFile.exists()) {
+                        Files.write(compactingJournalFile.toPath(), Files.readAllBytes(journalFile.toPath()),
+                                StandardOpenOption.APPEND);
+                        Files.delete(journalFile.toPath());
+                    } else {
+                        Files.move(journalFile.toPath(), compactingJournalFile.toPath(),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    state = snapshot();
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Ошибка при переключении журнала: " + journalFile.getAbsolutePath(), e);
+                } finally {
+                    journal = openJournal();
+                    journalRecords = 0;
+                }
+            }
+            FileBackedTaskManager.writeAtomically(file, FileBackedTaskManager.encodeCsv(state), true);
+            try {
+                Files.deleteIfExists(compactingJournalFile.toPath());
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при удалении журнала: " + compactingJournalFile.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Дожидается фонового уплотнения и закрывает журнал.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при закрытии журнала: " + journalFile.getAbsolutePath(), e);
+            }
+        }
+        if (compactionError != null) {
+            throw compactionError;
+        }
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized Long create(Task task) {
+        Long id = super.create(task);
+        appendUpsert(task);
+        return id;
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Task task) {
+        boolean result = super.update(task);
+        if (result) {
+            appendUpsert(task);
+        }
+        return result;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized Long create(Epic epic) {
+        Long id = super.create(epic);
+        appendUpsert(epic);
+        return id;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Epic epic) {
+        boolean result = super.update(epic);
+        if (result) {
+            appendUpsert(epic);
+        }
+        return result;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized Long create(SubTask subTask) {
+        Long id = super.create(subTask);
+        if (id != null) {
+            appendUpsert(subTask);
+            appendUpsert(epics.get(subTask.getEpicId()));
+        }
+        return id;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized boolean update(SubTask subTask) {
+        boolean result = super.update(subTask);
+        if (result) {
+            appendUpsert(subTask);
+            appendUpsert(epics.get(subTask.getEpicId()));
+        }
+        return result;
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearTasks() {
+        super.clearTasks();
+        append(CLEAR, TaskType.TASK.name());
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearEpics() {
+        super.clearEpics();
+        append(CLEAR, TaskType.EPIC.name());
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearSubTasks() {
+        super.clearSubTasks();
+        append(CLEAR, TaskType.SUBTASK.name());
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeTask(Long id) {
+        boolean exists = tasks.containsKey(id);
+        super.removeTask(id);
+        if (exists) {
+            append(DELETE, String.valueOf(id));
+        }
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeEpic(Long id) {
+        Epic epic = epics.get(id);
+        List<Long> subTaskIds = epic != null ? new ArrayList<>(epic.getSubTaskIds()) : List.of();
+        super.removeEpic(id);
+        if (epic != null) {
+            subTaskIds.forEach(subTaskId -> append(DELETE, String.valueOf(subTaskId)));
+            append(DELETE, String.valueOf(id));
+        }
+    }
+
+    /**
+     * @param subtaskId
+     */
+    @Override
+    public synchronized void removeSubTask(Long subtaskId) {
+        SubTask subTask = subTasks.get(subtaskId);
+        super.removeSubTask(subtaskId);
+        if (subTask != null) {
+            append(DELETE, String.valueOf(subtaskId));
+            appendUpsert(epics.get(subTask.getEpicId()));
+        }
+    }
+}
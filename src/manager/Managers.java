@@ -1,5 +1,8 @@
 package manager;
 
+import java.io.File;
+import java.time.Duration;
+
 /**
  * Утилитарный класс управления.
  */
@@ -9,7 +12,39 @@ public class Managers {
         return new InMemoryTaskManager(historyManager);
     }
 
+    /**
+     * @param url адрес встраиваемой базы данных JDBC, например jdbc:h2:file:./kanban
+     * @return менеджер, хранящий задачи в базе данных
+     */
+    public static JdbcTaskManager getJdbc(String url) {
+        return new JdbcTaskManager(getDefaultHistory(), url);
+    }
+
+    /**
+     * @param blobFile файл, в котором хранятся описания задач
+     * @return менеджер, читающий описания из файла при обращении
+     */
+    public static BlobDescriptionTaskManager getBlobDescriptions(File blobFile) {
+        return new BlobDescriptionTaskManager(getDefaultHistory(), blobFile);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * @param capacity наибольшее количество задач в истории; при переполнении вытесняется самый ранний просмотр
+     * @return
+     */
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    /**
+     * @param idleTimeout время без обращений, после которого история пользователя вытесняется
+     * @return история, раздельная для пользователей
+     */
+    public static PartitionedHistoryManager getPartitionedHistory(Duration idleTimeout) {
+        return new PartitionedHistoryManager(PartitionedHistoryManager.DEFAULT_PARTITION_CAPACITY, idleTimeout);
+    }
 }
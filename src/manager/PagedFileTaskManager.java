@@ -0,0 +1,263 @@
+package manager;
+
+import enums.TaskType;
+import models.BatchResult;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Менеджер, хранящий задачи в страничном B+-дереве {@link PagedTaskStore}.
+ * Операция помечает затронутые записи, и после нее одной записью хранилища сохраняются только они:
+ * копируются O(log n) страниц пути к записям вместо перезаписи всего файла.
+ * Хранилище уменьшает только стоимость записи: как и {@link InMemoryTaskManager}, менеджер держит все задачи
+ * в памяти и загружает их целиком при открытии, а чтение не обращается к хранилищу, поэтому пул буферов
+ * ограничивает только кеш страниц дерева, но не общий объем памяти.
+ */
+public class PagedFileTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final PagedTaskStore store;
+    private final Set<PagedTaskStore.RecordKey> dirtyRecords = new LinkedHashSet<>();
+    private boolean saveSuspended;
+
+    public PagedFileTaskManager(HistoryManager historyManager, File file) {
+        this(historyManager, file, PagedTaskStore.DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Открывает хранилище и загружает из него задачи.
+     *
+     * @param historyManager
+     * @param file
+     * @param cachePages емкость пула буферов хранилища в страницах
+     */
+    public PagedFileTaskManager(HistoryManager historyManager, File file, int cachePages) {
+        super(historyManager);
+        this.store = new PagedTaskStore(file, cachePages);
+        List<Task> restoredTasks = new ArrayList<>();
+        store.forEach(restoredTasks::add);
+        restore(restoredTasks);
+    }
+
+    PagedTaskStore store() {
+        return store;
+    }
+
+    private void markDirty(TaskType type, Long id) {
+        if (id != null) {
+            dirtyRecords.add(new PagedTaskStore.RecordKey(type, id));
+        }
+    }
+
+    private void markDirty(TaskType type, Collection<Long> ids) {
+        ids.forEach(id -> markDirty(type, id));
+    }
+
+    private void save() {
+        if (saveSuspended || dirtyRecords.isEmpty()) {
+            return;
+        }
+        List<Task> puts = new ArrayList<>();
+        List<PagedTaskStore.RecordKey> deletes = new ArrayList<>();
+        for (PagedTaskStore.RecordKey recordKey : dirtyRecords) {
+            Task task = switch (recordKey.type()) {
+                case TASK -> tasks.get(recordKey.id());
+                case EPIC -> epics.get(recordKey.id());
+                case SUBTASK -> subTasks.get(recordKey.id());
+            };
+            if (task != null) {
+                puts.add(task);
+            } else {
+                deletes.add(recordKey);
+            }
+        }
+        store.write(puts, deletes);
+        // при ошибке записи ключи остаются помеченными и сохраняются следующей операцией
+        dirtyRecords.clear();
+    }
+
+    /**
+     * Закрывает файл хранилища.
+     */
+    @Override
+    public synchronized void close() {
+        store.close();
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized Long create(Task task) {
+        Long id = super.create(task);
+        markDirty(TaskType.TASK, id);
+        save();
+        return id;
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Task task) {
+        boolean result = super.update(task);
+        if (result) {
+            markDirty(TaskType.TASK, task.getId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized Long create(Epic epic) {
+        Long id = super.create(epic);
+        markDirty(TaskType.EPIC, id);
+        save();
+        return id;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Epic epic) {
+        boolean result = super.update(epic);
+        if (result) {
+            markDirty(TaskType.EPIC, epic.getId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized Long create(SubTask subTask) {
+        Long id = super.create(subTask);
+        if (id != null) {
+            markDirty(TaskType.SUBTASK, id);
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+            save();
+        }
+        return id;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized boolean update(SubTask subTask) {
+        boolean result = super.update(subTask);
+        if (result) {
+            markDirty(TaskType.SUBTASK, subTask.getId());
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param batch
+     * @return
+     */
+    @Override
+    public synchronized BatchResult createAll(Collection<? extends Task> batch) {
+        BatchResult result;
+        saveSuspended = true;
+        try {
+            result = super.createAll(batch);
+        } finally {
+            saveSuspended = false;
+        }
+        save();
+        return result;
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearTasks() {
+        markDirty(TaskType.TASK, tasks.keySet());
+        super.clearTasks();
+        save();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearEpics() {
+        markDirty(TaskType.EPIC, epics.keySet());
+        markDirty(TaskType.SUBTASK, subTasks.keySet());
+        super.clearEpics();
+        save();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearSubTasks() {
+        markDirty(TaskType.SUBTASK, subTasks.keySet());
+        markDirty(TaskType.EPIC, epics.keySet());
+        super.clearSubTasks();
+        save();
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeTask(Long id) {
+        if (tasks.containsKey(id)) {
+            markDirty(TaskType.TASK, id);
+        }
+        super.removeTask(id);
+        save();
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeEpic(Long id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            markDirty(TaskType.EPIC, id);
+            markDirty(TaskType.SUBTASK, epic.getSubTaskIds());
+        }
+        super.removeEpic(id);
+        save();
+    }
+
+    /**
+     * @param subtaskId
+     */
+    @Override
+    public synchronized void removeSubTask(Long subtaskId) {
+        SubTask subTask = subTasks.get(subtaskId);
+        if (subTask != null) {
+            markDirty(TaskType.SUBTASK, subtaskId);
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+        }
+        super.removeSubTask(subtaskId);
+        save();
+    }
+}
@@ -0,0 +1,826 @@
+package manager;
+
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Страничное хранилище задач: B+-дерево по (id, тип) и вторичное B+-дерево по времени начала
+ * в одном файле со страницами фиксированного размера.
+ * <pre>
+ * мета-страницы 0 и 1: magic (4) | версия (4) | поколение (8) | число страниц (4)
+ *                      | корень основного дерева (4) | корень вторичного дерева (4) | CRC32C (4)
+ * лист:                тип (1) | число записей (2) | записи: ключ (8 + 8) | длина значения (4) | значение;
+ *                      длина -1 - значение в цепочке переполнения: первая страница (4) | длина (4)
+ * внутренний узел:     тип (1) | число ключей (2) | первый потомок (4) | ключи и потомки: ключ (8 + 8) | потомок (4)
+ * переполнение:        тип (1) | следующая страница (4) | длина фрагмента (4) | байты
+ * </pre>
+ * Страницы не перезаписываются на месте: изменение копирует путь от листа до корня в свободные страницы,
+ * и только после их синхронизации с диском записывается неактивная мета-страница со следующим поколением.
+ * При открытии выбирается мета-страница с верной контрольной суммой и большим поколением, поэтому сбой
+ * посреди записи оставляет предыдущее состояние. Освобожденные страницы переиспользуются только после
+ * записи мета-страницы, а при открытии вычисляются обходом деревьев.
+ * Прочитанные узлы неизменяемы и кешируются в пуле буферов ограниченного размера с часовым вытеснением.
+ * При удалении узлы не сливаются: опустевший узел удаляется из родителя.
+ */
+class PagedTaskStore implements AutoCloseable {
+    static final int PAGE_SIZE = 4096;
+    static final int DEFAULT_CACHE_PAGES = 256;
+    private static final int MAGIC = 0x4B425054; // "KBPT"
+    private static final int VERSION = 1;
+    private static final int META_SIZE = 32;
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final byte OVERFLOW = 3;
+    private static final int NO_PAGE = -1;
+    private static final int INLINE_LIMIT = 512;
+    private static final int OVERFLOW_HEADER = 9;
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final File file;
+    private final FileChannel channel;
+    private final BufferPool pool;
+    private final TreeSet<Integer> freePages = new TreeSet<>();
+    private final Set<Integer> allocatedPages = new HashSet<>();
+    private final List<Integer> releasedPages = new ArrayList<>();
+    private final Map<Integer, Node> dirtyNodes = new LinkedHashMap<>();
+    private final TaskCsvCodec codec = new TaskCsvCodec();
+    private long generation;
+    private int pageCount;
+    private int primaryRoot;
+    private int secondaryRoot;
+    private int committedPageCount;
+    private int committedPrimaryRoot;
+    private int committedSecondaryRoot;
+
+    /**
+     * @param type тип записи
+     * @param id   id задачи
+     */
+    record RecordKey(TaskType type, long id) {
+    }
+
+    private record Key(long hi, long lo) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(hi, other.hi);
+            return result != 0 ? result : Long.compare(lo, other.lo);
+        }
+    }
+
+    /**
+     * Значение записи листа: байты на странице либо ссылка на цепочку страниц переполнения.
+     */
+    private record Value(byte[] inline, int overflowPage, int length) {
+        int encodedSize() {
+            return inline != null ? inline.length : 2 * Integer.BYTES;
+        }
+    }
+
+    private record Split(Key separator, Node right) {
+    }
+
+    private static final class Node {
+        final boolean leaf;
+        int page;
+        final List<Key> keys = new ArrayList<>();
+        final List<Value> values;
+        final List<Integer> children;
+
+        Node(boolean leaf, int page) {
+            this.leaf = leaf;
+            this.page = page;
+            this.values = leaf ? new ArrayList<>() : null;
+            this.children = leaf ? null : new ArrayList<>();
+        }
+
+        Node copy(int newPage) {
+            Node copy = new Node(leaf, newPage);
+            copy.keys.addAll(keys);
+            if (leaf) {
+                copy.values.addAll(values);
+            } else {
+                copy.children.addAll(children);
+            }
+            return copy;
+        }
+
+        int encodedSize() {
+            if (!leaf) {
+                return 3 + Integer.BYTES + keys.size() * (2 * Long.BYTES + Integer.BYTES);
+            }
+            int size = 3;
+            for (Value value : values) {
+                size += 2 * Long.BYTES + Integer.BYTES + value.encodedSize();
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Пул неизменяемых узлов фиксированной емкости. Обращение ставит кадру бит использования,
+     * вытесняется первый кадр без бита, при этом пройденным кадрам бит сбрасывается.
+     */
+    private static final class BufferPool {
+        private final int[] pages;
+        private final Node[] nodes;
+        private final boolean[] referenced;
+        private final Map<Integer, Integer> frames = new HashMap<>();
+        private int hand;
+
+        BufferPool(int capacity) {
+            pages = new int[capacity];
+            nodes = new Node[capacity];
+            referenced = new boolean[capacity];
+        }
+
+        Node get(int page) {
+            Integer frame = frames.get(page);
+            if (frame == null) {
+                return null;
+            }
+            referenced[frame] = true;
+            return nodes[frame];
+        }
+
+        void put(int page, Node node) {
+            Integer frame = frames.get(page);
+            if (frame == null) {
+                while (nodes[hand] != null && referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = (hand + 1) % nodes.length;
+                }
+                frame = hand;
+                hand = (hand + 1) % nodes.length;
+                if (nodes[frame] != null) {
+                    frames.remove(pages[frame]);
+                }
+                frames.put(page, frame);
+                pages[frame] = page;
+            }
+            nodes[frame] = node;
+            referenced[frame] = true;
+        }
+
+        void invalidate(int page) {
+            Integer frame = frames.remove(page);
+            if (frame != null) {
+                nodes[frame] = null;
+                referenced[frame] = false;
+            }
+        }
+
+        int size() {
+            return frames.size();
+        }
+    }
+
+    PagedTaskStore(File file) {
+        this(file, DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * Открывает хранилище или создает пустое, если файла нет.
+     *
+     * @param file
+     * @param cachePages емкость пула буферов в страницах
+     */
+    PagedTaskStore(File file, int cachePages) {
+        if (cachePages <= 0) {
+            throw new IllegalArgumentException("Емкость пула буферов должна быть положительной: " + cachePages);
+        }
+        this.file = file;
+        this.pool = new BufferPool(cachePages);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при открытии хранилища: " + file.getAbsolutePath(), e);
+        }
+        try {
+            if (channel.size() == 0) {
+                pageCount = 2;
+                primaryRoot = NO_PAGE;
+                secondaryRoot = NO_PAGE;
+                writeMeta();
+                channel.force(false);
+            } else {
+                readMeta();
+                collectFreePages();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            if (e instanceof ManagerSaveException managerSaveException) {
+                throw managerSaveException;
+            }
+            throw new ManagerSaveException("Ошибка при открытии хранилища: " + file.getAbsolutePath(), e);
+        }
+        committedPageCount = pageCount;
+        committedPrimaryRoot = primaryRoot;
+        committedSecondaryRoot = secondaryRoot;
+    }
+
+    private void readMeta() throws IOException {
+        ByteBuffer best = null;
+        for (int slot = 0; slot < 2; slot++) {
+            ByteBuffer meta = ByteBuffer.allocate(META_SIZE);
+            channel.read(meta, (long) slot * PAGE_SIZE);
+            if (meta.position() < META_SIZE || meta.getInt(0) != MAGIC || meta.getInt(4) != VERSION) {
+                continue;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(meta.array(), 0, META_SIZE - Integer.BYTES);
+            if ((int) crc.getValue() == meta.getInt(META_SIZE - Integer.BYTES)
+                    && (best == null || meta.getLong(8) > best.getLong(8))) {
+                best = meta;
+            }
+        }
+        if (best == null) {
+            throw new ManagerSaveException("Хранилище повреждено: " + file.getAbsolutePath()
+                    + " . Нет мета-страницы с верной контрольной суммой", null);
+        }
+        generation = best.getLong(8);
+        pageCount = best.getInt(16);
+        primaryRoot = best.getInt(20);
+        secondaryRoot = best.getInt(24);
+    }
+
+    /**
+     * Записывает мета-страницу текущего поколения в слот, не занятый предыдущим поколением.
+     */
+    private void writeMeta() throws IOException {
+        ByteBuffer meta = ByteBuffer.allocate(META_SIZE);
+        meta.putInt(MAGIC).putInt(VERSION).putLong(generation).putInt(pageCount)
+                .putInt(primaryRoot).putInt(secondaryRoot);
+        CRC32C crc = new CRC32C();
+        crc.update(meta.array(), 0, META_SIZE - Integer.BYTES);
+        meta.putInt((int) crc.getValue()).flip();
+        channel.write(meta, generation % 2 * PAGE_SIZE);
+    }
+
+    private void collectFreePages() throws IOException {
+        BitSet reachable = new BitSet(pageCount);
+        markReachable(primaryRoot, reachable);
+        markReachable(secondaryRoot, reachable);
+        for (int page = 2; page < pageCount; page++) {
+            if (!reachable.get(page)) {
+                freePages.add(page);
+            }
+        }
+    }
+
+    private void markReachable(int page, BitSet reachable) throws IOException {
+        if (page == NO_PAGE) {
+            return;
+        }
+        reachable.set(page);
+        Node node = decode(page, readPage(page));
+        if (!node.leaf) {
+            for (int child : node.children) {
+                markReachable(child, reachable);
+            }
+            return;
+        }
+        for (Value value : node.values) {
+            for (int overflow = value.overflowPage(); value.inline() == null && overflow != NO_PAGE; ) {
+                reachable.set(overflow);
+                overflow = readPage(overflow).getInt(1);
+            }
+        }
+    }
+
+    /**
+     * @return задача или null, если записи нет
+     */
+    synchronized Task get(TaskType type, long id) {
+        try {
+            Value value = find(primaryRoot, primaryKey(type, id));
+            return value == null ? null : decodeTask(value);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении хранилища: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Обходит все задачи в порядке id.
+     */
+    synchronized void forEach(Consumer<Task> action) {
+        scan(primaryRoot, null, null, (key, value) -> action.accept(decodeTask(value)));
+    }
+
+    /**
+     * Обходит вторичное дерево: записи с временем начала в диапазоне [from, to) по возрастанию времени и id.
+     *
+     * @param from начало диапазона включительно, null - без ограничения
+     * @param to   конец диапазона не включительно, null - без ограничения
+     * @return ключи записей
+     */
+    synchronized List<RecordKey> findByStartTime(LocalDateTime from, LocalDateTime to) {
+        List<RecordKey> found = new ArrayList<>();
+        scan(secondaryRoot, from == null ? null : new Key(micros(from), Long.MIN_VALUE),
+                to == null ? null : new Key(micros(to), Long.MIN_VALUE),
+                (key, value) -> found.add(new RecordKey(TYPES[(int) (key.lo() & 3)], key.lo() >>> 2)));
+        return found;
+    }
+
+    /**
+     * Применяет изменения одной записью: новые узлы пишутся в свободные страницы, затем переключается мета-страница.
+     *
+     * @param puts    задачи для вставки или замены
+     * @param deletes ключи удаляемых записей
+     */
+    synchronized void write(Collection<? extends Task> puts, Collection<RecordKey> deletes) {
+        if (puts.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        try {
+            for (RecordKey recordKey : deletes) {
+                remove(recordKey.type(), recordKey.id());
+            }
+            for (Task task : puts) {
+                TaskType type = typeOf(task);
+                remove(type, task.getId());
+                byte[] bytes = codec.encode(task).toString().getBytes(StandardCharsets.UTF_8);
+                primaryRoot = put(primaryRoot, primaryKey(type, task.getId()), toValue(bytes));
+                if (task.getStartTime() != null) {
+                    secondaryRoot = put(secondaryRoot, secondaryKey(task.getStartTime(), type, task.getId()),
+                            new Value(new byte[0], NO_PAGE, 0));
+                }
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            rollback();
+            if (e instanceof ManagerSaveException managerSaveException) {
+                throw managerSaveException;
+            }
+            throw new ManagerSaveException("Ошибка при записи хранилища: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Удаляет запись из основного дерева и, если у нее было время начала, из вторичного.
+     */
+    private void remove(TaskType type, long id) throws IOException {
+        Key key = primaryKey(type, id);
+        Value value = find(primaryRoot, key);
+        if (value == null) {
+            return;
+        }
+        LocalDateTime startTime = decodeTask(value).getStartTime();
+        primaryRoot = delete(primaryRoot, key);
+        if (startTime != null) {
+            secondaryRoot = delete(secondaryRoot, secondaryKey(startTime, type, id));
+        }
+    }
+
+    private void commit() throws IOException {
+        for (Node node : dirtyNodes.values()) {
+            writePage(node.page, encode(node));
+        }
+        channel.force(false);
+        generation++;
+        writeMeta();
+        channel.force(false);
+        for (Node node : dirtyNodes.values()) {
+            pool.put(node.page, node);
+        }
+        dirtyNodes.clear();
+        allocatedPages.clear();
+        freePages.addAll(releasedPages);
+        releasedPages.clear();
+        committedPageCount = pageCount;
+        committedPrimaryRoot = primaryRoot;
+        committedSecondaryRoot = secondaryRoot;
+    }
+
+    private void rollback() {
+        dirtyNodes.clear();
+        releasedPages.clear();
+        for (int page : allocatedPages) {
+            pool.invalidate(page);
+            if (page < committedPageCount) {
+                freePages.add(page);
+            }
+        }
+        allocatedPages.clear();
+        // страницы за концом зафиксированного файла, выделенные и освобожденные в этой же записи
+        freePages.tailSet(committedPageCount).clear();
+        pageCount = committedPageCount;
+        primaryRoot = committedPrimaryRoot;
+        secondaryRoot = committedSecondaryRoot;
+    }
+
+    private int allocate() {
+        Integer page = freePages.pollFirst();
+        if (page == null) {
+            page = pageCount++;
+        }
+        pool.invalidate(page);
+        allocatedPages.add(page);
+        return page;
+    }
+
+    /**
+     * Страница, выделенная в текущей записи, сразу возвращается в свободные, остальные - после записи мета-страницы.
+     */
+    private void release(int page) {
+        if (allocatedPages.remove(page)) {
+            dirtyNodes.remove(page);
+            freePages.add(page);
+        } else {
+            releasedPages.add(page);
+        }
+    }
+
+    private Node node(int page) throws IOException {
+        Node node = dirtyNodes.get(page);
+        if (node == null) {
+            node = pool.get(page);
+        }
+        if (node == null) {
+            node = decode(page, readPage(page));
+            pool.put(page, node);
+        }
+        return node;
+    }
+
+    /**
+     * @return узел, который можно менять в текущей записи: сам узел, если он уже скопирован, иначе его копия
+     */
+    private Node writable(Node node) {
+        if (dirtyNodes.containsKey(node.page)) {
+            return node;
+        }
+        Node copy = node.copy(allocate());
+        release(node.page);
+        dirtyNodes.put(copy.page, copy);
+        return copy;
+    }
+
+    private Node newNode(boolean leaf) {
+        Node node = new Node(leaf, allocate());
+        dirtyNodes.put(node.page, node);
+        return node;
+    }
+
+    private Value find(int root, Key key) throws IOException {
+        if (root == NO_PAGE) {
+            return null;
+        }
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.children.get(childIndex(node, key)));
+        }
+        int index = Collections.binarySearch(node.keys, key);
+        return index >= 0 ? node.values.get(index) : null;
+    }
+
+    private static int childIndex(Node node, Key key) {
+        int index = Collections.binarySearch(node.keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * @return корень дерева после вставки
+     */
+    private int put(int root, Key key, Value value) throws IOException {
+        if (root == NO_PAGE) {
+            Node leaf = newNode(true);
+            leaf.keys.add(key);
+            leaf.values.add(value);
+            return leaf.page;
+        }
+        Node node = writable(node(root));
+        Split split = insert(node, key, value);
+        if (split == null) {
+            return node.page;
+        }
+        Node newRoot = newNode(false);
+        newRoot.children.add(node.page);
+        newRoot.keys.add(split.separator());
+        newRoot.children.add(split.right().page);
+        return newRoot.page;
+    }
+
+    private Split insert(Node node, Key key, Value value) throws IOException {
+        if (node.leaf) {
+            int index = Collections.binarySearch(node.keys, key);
+            if (index >= 0) {
+                releaseValue(node.values.get(index));
+                node.values.set(index, value);
+            } else {
+                node.keys.add(-index - 1, key);
+                node.values.add(-index - 1, value);
+            }
+        } else {
+            int index = childIndex(node, key);
+            Node child = writable(node(node.children.get(index)));
+            node.children.set(index, child.page);
+            Split split = insert(child, key, value);
+            if (split != null) {
+                node.keys.add(index, split.separator());
+                node.children.add(index + 1, split.right().page);
+            }
+        }
+        return node.encodedSize() > PAGE_SIZE ? split(node) : null;
+    }
+
+    private Split split(Node node) {
+        Node right = newNode(node.leaf);
+        if (node.leaf) {
+            int half = node.encodedSize() / 2;
+            int size = 3;
+            int middle = 0;
+            while (middle < node.keys.size() - 1 && size < half) {
+                size += 2 * Long.BYTES + Integer.BYTES + node.values.get(middle).encodedSize();
+                middle++;
+            }
+            middle = Math.max(middle, 1);
+            right.keys.addAll(node.keys.subList(middle, node.keys.size()));
+            right.values.addAll(node.values.subList(middle, node.values.size()));
+            node.keys.subList(middle, node.keys.size()).clear();
+            node.values.subList(middle, node.values.size()).clear();
+            return new Split(right.keys.get(0), right);
+        }
+        int middle = node.keys.size() / 2;
+        Key separator = node.keys.get(middle);
+        right.keys.addAll(node.keys.subList(middle + 1, node.keys.size()));
+        right.children.addAll(node.children.subList(middle + 1, node.children.size()));
+        node.keys.subList(middle, node.keys.size()).clear();
+        node.children.subList(middle + 1, node.children.size()).clear();
+        return new Split(separator, right);
+    }
+
+    /**
+     * @return корень дерева после удаления; ключ должен присутствовать в дереве
+     */
+    private int delete(int root, Key key) throws IOException {
+        Node node = writable(node(root));
+        if (remove(node, key)) {
+            release(node.page);
+            return NO_PAGE;
+        }
+        int newRoot = node.page;
+        while (!node.leaf && node.children.size() == 1) {
+            release(node.page);
+            newRoot = node.children.get(0);
+            node = node(newRoot);
+        }
+        return newRoot;
+    }
+
+    /**
+     * @return true, если узел опустел
+     */
+    private boolean remove(Node node, Key key) throws IOException {
+        if (node.leaf) {
+            int index = Collections.binarySearch(node.keys, key);
+            if (index >= 0) {
+                releaseValue(node.values.get(index));
+                node.keys.remove(index);
+                node.values.remove(index);
+            }
+            return node.keys.isEmpty();
+        }
+        int index = childIndex(node, key);
+        Node child = writable(node(node.children.get(index)));
+        node.children.set(index, child.page);
+        if (remove(child, key)) {
+            release(child.page);
+            node.children.remove(index);
+            if (!node.keys.isEmpty()) {
+                node.keys.remove(index > 0 ? index - 1 : 0);
+            }
+        }
+        return node.children.isEmpty();
+    }
+
+    private void scan(int page, Key from, Key to, BiConsumer<Key, Value> visitor) {
+        if (page == NO_PAGE) {
+            return;
+        }
+        Node node;
+        try {
+            node = node(page);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении хранилища: " + file.getAbsolutePath(), e);
+        }
+        if (!node.leaf) {
+            int first = from == null ? 0 : childIndex(node, from);
+            int last = to == null ? node.children.size() - 1 : childIndex(node, to);
+            for (int index = first; index <= last; index++) {
+                scan(node.children.get(index), from, to, visitor);
+            }
+            return;
+        }
+        for (int index = 0; index < node.keys.size(); index++) {
+            Key key = node.keys.get(index);
+            if (from != null && key.compareTo(from) < 0) {
+                continue;
+            }
+            if (to != null && key.compareTo(to) >= 0) {
+                return;
+            }
+            visitor.accept(key, node.values.get(index));
+        }
+    }
+
+    private Value toValue(byte[] bytes) throws IOException {
+        if (bytes.length <= INLINE_LIMIT) {
+            return new Value(bytes, NO_PAGE, bytes.length);
+        }
+        int capacity = PAGE_SIZE - OVERFLOW_HEADER;
+        int pages = (bytes.length + capacity - 1) / capacity;
+        int[] chain = new int[pages];
+        for (int i = 0; i < pages; i++) {
+            chain[i] = allocate();
+        }
+        for (int i = 0; i < pages; i++) {
+            int offset = i * capacity;
+            int length = Math.min(capacity, bytes.length - offset);
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put(OVERFLOW).putInt(i + 1 < pages ? chain[i + 1] : NO_PAGE).putInt(length).put(bytes, offset, length);
+            writePage(chain[i], page);
+        }
+        return new Value(null, chain[0], bytes.length);
+    }
+
+    private void releaseValue(Value value) throws IOException {
+        for (int page = value.overflowPage(); value.inline() == null && page != NO_PAGE; ) {
+            int next = readPage(page).getInt(1);
+            release(page);
+            page = next;
+        }
+    }
+
+    private byte[] readValue(Value value) throws IOException {
+        if (value.inline() != null) {
+            return value.inline();
+        }
+        byte[] bytes = new byte[value.length()];
+        int offset = 0;
+        for (int page = value.overflowPage(); page != NO_PAGE; ) {
+            ByteBuffer buffer = readPage(page);
+            if (buffer.get(0) != OVERFLOW) {
+                throw new ManagerSaveException("Страница " + page + " повреждена: " + file.getAbsolutePath(), null);
+            }
+            int length = buffer.getInt(5);
+            buffer.get(OVERFLOW_HEADER, bytes, offset, length);
+            offset += length;
+            page = buffer.getInt(1);
+        }
+        return bytes;
+    }
+
+    private Task decodeTask(Value value) {
+        try {
+            return TaskCsvCodec.decode(new String(readValue(value), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении хранилища: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private ByteBuffer readPage(int page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ManagerSaveException("Страница " + page + " за пределами файла: "
+                        + file.getAbsolutePath(), null);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void writePage(int page, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        long position = (long) page * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static ByteBuffer encode(Node node) {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        page.put(node.leaf ? LEAF : INTERNAL).putShort((short) node.keys.size());
+        if (!node.leaf) {
+            page.putInt(node.children.get(0));
+        }
+        for (int i = 0; i < node.keys.size(); i++) {
+            Key key = node.keys.get(i);
+            page.putLong(key.hi()).putLong(key.lo());
+            if (!node.leaf) {
+                page.putInt(node.children.get(i + 1));
+                continue;
+            }
+            Value value = node.values.get(i);
+            if (value.inline() != null) {
+                page.putInt(value.inline().length).put(value.inline());
+            } else {
+                page.putInt(-1).putInt(value.overflowPage()).putInt(value.length());
+            }
+        }
+        return page;
+    }
+
+    private Node decode(int page, ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type != LEAF && type != INTERNAL) {
+            throw new ManagerSaveException("Страница " + page + " повреждена: " + file.getAbsolutePath(), null);
+        }
+        Node node = new Node(type == LEAF, page);
+        int count = Short.toUnsignedInt(buffer.getShort());
+        if (!node.leaf) {
+            node.children.add(buffer.getInt());
+        }
+        for (int i = 0; i < count; i++) {
+            node.keys.add(new Key(buffer.getLong(), buffer.getLong()));
+            if (!node.leaf) {
+                node.children.add(buffer.getInt());
+                continue;
+            }
+            int length = buffer.getInt();
+            if (length >= 0) {
+                byte[] inline = new byte[length];
+                buffer.get(inline);
+                node.values.add(new Value(inline, NO_PAGE, length));
+            } else {
+                node.values.add(new Value(null, buffer.getInt(), buffer.getInt()));
+            }
+        }
+        return node;
+    }
+
+    private static Key primaryKey(TaskType type, long id) {
+        return new Key(id, type.ordinal());
+    }
+
+    private static Key secondaryKey(LocalDateTime startTime, TaskType type, long id) {
+        return new Key(micros(startTime), id << 2 | type.ordinal());
+    }
+
+    private static long micros(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                dateTime.getNano() / 1_000);
+    }
+
+    static TaskType typeOf(Task task) {
+        return task instanceof SubTask ? TaskType.SUBTASK : task instanceof Epic ? TaskType.EPIC : TaskType.TASK;
+    }
+
+    /**
+     * @return количество страниц в файле, включая свободные
+     */
+    synchronized int pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return количество узлов в пуле буферов
+     */
+    synchronized int cachedPages() {
+        return pool.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии хранилища: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // исходная ошибка открытия важнее
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package manager;
+
+import models.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * История просмотров, раздельная для пользователей одного менеджера. Просмотр записывается в раздел
+ * пользователя, заданного {@link #asUser(String)} для текущего потока. Раздел хранит только id задач
+ * в массиве long; сами задачи хранятся один раз на весь менеджер вместе с обратным индексом
+ * id - пользователи, поэтому удаление задачи очищает только разделы, где она есть, без обхода всех пользователей.
+ * Разделы, к которым не обращались дольше заданного времени, вытесняются.
+ * Повторный просмотр и удаление в разделе ищут id линейно, поэтому размер раздела ограничен.
+ * История относится к сеансам пользователей: менеджеры с сохранением в файл ее не записывают и не восстанавливают.
+ */
+public class PartitionedHistoryManager implements HistoryManager {
+    public static final String ANONYMOUS = "";
+    public static final int DEFAULT_PARTITION_CAPACITY = 1_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final int partitionCapacity;
+    private final long idleTimeoutNanos;
+    private final ThreadLocal<String> currentUser = ThreadLocal.withInitial(() -> ANONYMOUS);
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private final Map<Long, Viewed> viewed = new HashMap<>();
+    private long lastSweep = System.nanoTime();
+
+    public PartitionedHistoryManager() {
+        this(DEFAULT_PARTITION_CAPACITY, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param partitionCapacity наибольшее количество задач в истории одного пользователя
+     * @param idleTimeout       время без обращений, после которого раздел пользователя вытесняется
+     */
+    public PartitionedHistoryManager(int partitionCapacity, Duration idleTimeout) {
+        if (partitionCapacity <= 0) {
+            throw new IllegalArgumentException("Некорректная емкость истории: " + partitionCapacity);
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Некорректное время вытеснения: " + idleTimeout);
+        }
+        this.partitionCapacity = partitionCapacity;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Задача, просмотренная хотя бы одним пользователем, и пользователи, в истории которых она есть.
+     */
+    private static class Viewed {
+        Task task;
+        final Set<String> users = new HashSet<>(4);
+
+        Viewed(Task task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * История одного пользователя: id от самого раннего просмотра.
+     */
+    private static class Partition {
+        long[] ids = new long[8];
+        int size;
+        long lastAccess;
+
+        int indexOf(long id) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        void append(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    /**
+     * Область, в которой просмотры текущего потока записываются в историю пользователя.
+     */
+    public class Scope implements AutoCloseable {
+        private final String previousUser;
+
+        private Scope(String previousUser) {
+            this.previousUser = previousUser;
+        }
+
+        @Override
+        public void close() {
+            currentUser.set(previousUser);
+        }
+    }
+
+    /**
+     * @param userId
+     * @return область, при закрытии которой восстанавливается предыдущий пользователь потока
+     */
+    public Scope asUser(String userId) {
+        String previousUser = currentUser.get();
+        currentUser.set(userId == null ? ANONYMOUS : userId);
+        return new Scope(previousUser);
+    }
+
+    /**
+     * @param task
+     */
+    @Override
+    public synchronized void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        String userId = currentUser.get();
+        long now = System.nanoTime();
+        evictIdle(now);
+        Partition partition = partitions.computeIfAbsent(userId, user -> new Partition());
+        partition.lastAccess = now;
+        long id = task.getId();
+        Viewed viewedTask = viewed.computeIfAbsent(id, key -> new Viewed(task));
+        viewedTask.task = task;
+        int index = partition.indexOf(id);
+        if (index >= 0) {
+            partition.removeAt(index);
+        } else {
+            viewedTask.users.add(userId);
+            if (partition.size == partitionCapacity) {
+                long evictedId = partition.ids[0];
+                partition.removeAt(0);
+                release(evictedId, userId);
+            }
+        }
+        partition.append(id);
+    }
+
+    /**
+     * Удаляет задачу из истории всех пользователей, в которой она есть.
+     *
+     * @param id
+     */
+    @Override
+    public synchronized void remove(Long id) {
+        Viewed viewedTask = viewed.remove(id);
+        if (viewedTask == null) {
+            return;
+        }
+        for (String userId : viewedTask.users) {
+            Partition partition = partitions.get(userId);
+            int index = partition.indexOf(id);
+            if (index >= 0) {
+                partition.removeAt(index);
+            }
+        }
+    }
+
+    /**
+     * @return история пользователя текущего потока
+     */
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(currentUser.get());
+    }
+
+    /**
+     * @param userId
+     * @return история пользователя от самого раннего просмотра
+     */
+    @Override
+    public synchronized List<Task> getHistory(String userId) {
+        long now = System.nanoTime();
+        evictIdle(now);
+        Partition partition = partitions.get(userId == null ? ANONYMOUS : userId);
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        partition.lastAccess = now;
+        List<Task> listTasks = new ArrayList<>(partition.size);
+        for (int i = 0; i < partition.size; i++) {
+            listTasks.add(viewed.get(partition.ids[i]).task);
+        }
+        return listTasks;
+    }
+
+    /**
+     * @return задачи, которые есть в истории хотя бы одного пользователя
+     */
+    @Override
+    public synchronized List<Task> getAllHistory() {
+        List<Task> listTasks = new ArrayList<>(viewed.size());
+        viewed.values().forEach(viewedTask -> listTasks.add(viewedTask.task));
+        return listTasks;
+    }
+
+    /**
+     * @return true: история ведется отдельно для каждого пользователя и не сохраняется в снимки
+     */
+    @Override
+    public boolean isPartitioned() {
+        return true;
+    }
+
+    /**
+     * @return количество пользователей, история которых хранится
+     */
+    public synchronized int partitionCount() {
+        return partitions.size();
+    }
+
+    private void release(long id, String userId) {
+        Viewed viewedTask = viewed.get(id);
+        viewedTask.users.remove(userId);
+        if (viewedTask.users.isEmpty()) {
+            viewed.remove(id);
+        }
+    }
+
+    /**
+     * Проверяет разделы не чаще одного раза за время вытеснения, поэтому обход всех пользователей
+     * распределяется по обращениям.
+     */
+    private void evictIdle(long now) {
+        if (now - lastSweep < idleTimeoutNanos) {
+            return;
+        }
+        lastSweep = now;
+        Iterator<Map.Entry<String, Partition>> iterator = partitions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Partition> entry = iterator.next();
+            Partition partition = entry.getValue();
+            if (now - partition.lastAccess >= idleTimeoutNanos) {
+                for (int i = 0; i < partition.size; i++) {
+                    release(partition.ids[i], entry.getKey());
+                }
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package manager;
+
+import models.Task;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Вторичный индекс задач по приоритету с составным ключом (startTime, id).
+ * Ключ фиксируется при добавлении, поэтому изменение задачи требует повторного {@link #put(Task)}:
+ * прежняя позиция удаляется, новая вставляется.
+ */
+public class PrioritizedIndex {
+    private final NavigableMap<Key, Task> sortedTasks = new TreeMap<>();
+    private final Map<Long, Key> keys = new HashMap<>();
+
+    public record Key(LocalDateTime startTime, Long id) implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::startTime,
+                Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).thenComparing(Key::id);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * @param task
+     */
+    public void put(Task task) {
+        remove(task.getId());
+        Key key = new Key(task.getStartTime(), task.getId());
+        sortedTasks.put(key, task);
+        keys.put(task.getId(), key);
+    }
+
+    /**
+     * @param id
+     * @return true, если задача была в индексе
+     */
+    public boolean remove(Long id) {
+        Key key = keys.remove(id);
+        if (key == null) {
+            return false;
+        }
+        sortedTasks.remove(key);
+        return true;
+    }
+
+    public boolean contains(Long id) {
+        return keys.containsKey(id);
+    }
+
+    public Key keyOf(Long id) {
+        return keys.get(id);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public void clear() {
+        sortedTasks.clear();
+        keys.clear();
+    }
+
+    /**
+     * @param asc
+     * @return представление индекса в указанном направлении без копирования
+     */
+    public NavigableMap<Key, Task> view(boolean asc) {
+        return asc ? sortedTasks : sortedTasks.descendingMap();
+    }
+
+    /**
+     * @param from начало диапазона включительно, null - без ограничения
+     * @param to   конец диапазона не включительно, null - без ограничения
+     * @return представление задач с startTime в диапазоне [from, to)
+     */
+    public NavigableMap<Key, Task> range(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<Key, Task> range = sortedTasks;
+        if (from != null) {
+            range = range.tailMap(new Key(from, Long.MIN_VALUE), true);
+        }
+        if (to != null) {
+            range = range.headMap(new Key(to, Long.MIN_VALUE), false);
+        }
+        return range;
+    }
+
+    /**
+     * Проверяет согласованность индекса: каждой задаче соответствует ровно одна позиция,
+     * и эта позиция совпадает с текущим startTime задачи.
+     *
+     * @throws IllegalStateException при нарушении инварианта
+     */
+    public void checkInvariants() {
+        if (sortedTasks.size() != keys.size()) {
+            throw new IllegalStateException("Размер индекса " + sortedTasks.size()
+                    + " не совпадает с количеством ключей " + keys.size());
+        }
+        for (Map.Entry<Key, Task> entry : sortedTasks.entrySet()) {
+            Key key = entry.getKey();
+            Task task = entry.getValue();
+            if (!key.id().equals(task.getId()) || !key.equals(keys.get(task.getId()))) {
+                throw new IllegalStateException("Устаревшая позиция в индексе: " + key + " для задачи " + task);
+            }
+            if (!Objects.equals(key.startTime(), task.getStartTime())) {
+                throw new IllegalStateException("Позиция " + key + " не соответствует времени начала задачи " + task);
+            }
+        }
+    }
+}
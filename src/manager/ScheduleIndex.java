@@ -0,0 +1,59 @@
+package manager;
+
+import models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Индекс занятости времени, по которому проверяется пересечение сроков задач.
+ */
+public interface ScheduleIndex {
+
+    void put(Task task);
+
+    boolean remove(Long id);
+
+    boolean contains(Long id);
+
+    int size();
+
+    void clear();
+
+    Task findIntercept(LocalDateTime start, LocalDateTime end, Predicate<Task> exclude);
+
+    List<Task> findIntercepts(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Ищет ближайшее начало свободного окна: на каждом шаге момент сдвигается на самое позднее
+     * окончание задач, пересекающихся с окном, поэтому шагов не больше, чем мешающих задач.
+     *
+     * @param from     момент, не раньше которого должно начаться окно
+     * @param duration длительность окна
+     * @return начало свободного окна
+     */
+    default LocalDateTime findFreeStart(LocalDateTime from, Duration duration) {
+        LocalDateTime start = from;
+        while (true) {
+            List<Task> intercepts = findIntercepts(start, start.plus(duration));
+            if (intercepts.isEmpty()) {
+                return start;
+            }
+            for (Task task : intercepts) {
+                LocalDateTime end = endOf(task);
+                if (end.isAfter(start)) {
+                    start = end;
+                }
+            }
+        }
+    }
+
+    static LocalDateTime endOf(Task task) {
+        if (task.getEndTime() != null) {
+            return task.getEndTime();
+        }
+        return task.getStartTime() != null ? task.getStartTime().plus(task.getDuration()) : null;
+    }
+}
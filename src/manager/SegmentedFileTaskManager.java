@@ -0,0 +1,321 @@
+package manager;
+
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.BatchResult;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Менеджер, хранящий задачи в каталоге сегментов: отдельный CSV-файл на каждый тип задач и диапазон id,
+ * например subtask-3.csv для подзадач с id из [3 * segmentSize, 4 * segmentSize).
+ * Операция помечает затронутые сегменты, и после нее атомарно перезаписываются только они,
+ * через {@link FileBackedTaskManager#writeAtomically} с синхронизацией файла и каталога.
+ * Сегменты перезаписываются по очереди, поэтому при сбое между ними статус эпика может отстать от подзадач.
+ */
+public class SegmentedFileTaskManager extends InMemoryTaskManager {
+    public static final int DEFAULT_SEGMENT_SIZE = 1024;
+    private static final String CSV_HEADER = "id,type,name,status,description,epic";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("(task|epic|subtask)-(\\d+)\\.csv");
+
+    private final File directory;
+    private final int segmentSize;
+    private final Set<Segment> dirtySegments = new LinkedHashSet<>();
+    private boolean saveSuspended;
+
+    private record Segment(TaskType type, long index) {
+        String fileName() {
+            return type.name().toLowerCase() + "-" + index + ".csv";
+        }
+    }
+
+    public SegmentedFileTaskManager(HistoryManager historyManager, File directory) {
+        this(historyManager, directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Создает менеджер и загружает сегменты из каталога, если они есть.
+     *
+     * @param historyManager
+     * @param directory   каталог сегментов, создается при отсутствии
+     * @param segmentSize количество id в одном сегменте
+     */
+    public SegmentedFileTaskManager(HistoryManager historyManager, File directory, int segmentSize) {
+        super(historyManager);
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Размер сегмента должен быть положительным: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new ManagerSaveException("Не удается создать каталог: " + directory.getAbsolutePath(), null);
+        }
+        load();
+    }
+
+    private void load() {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_FILE.matcher(name).matches());
+        List<Task> restoredTasks = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                restoredTasks.addAll(FileBackedTaskManager.readTasks(file));
+            }
+        }
+        restore(restoredTasks);
+    }
+
+    /**
+     * @return имена файлов сегментов в каталоге
+     */
+    Set<String> segmentFiles() {
+        Set<String> names = new LinkedHashSet<>();
+        String[] files = directory.list();
+        if (files != null) {
+            for (String name : files) {
+                if (SEGMENT_FILE.matcher(name).matches()) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private Segment segmentOf(TaskType type, long id) {
+        return new Segment(type, Math.floorDiv(id, segmentSize));
+    }
+
+    private void markDirty(TaskType type, Long id) {
+        if (id != null) {
+            dirtySegments.add(segmentOf(type, id));
+        }
+    }
+
+    private void markDirty(TaskType type, Collection<Long> ids) {
+        ids.forEach(id -> markDirty(type, id));
+    }
+
+    private void save() {
+        if (saveSuspended) {
+            return;
+        }
+        for (Segment segment : dirtySegments) {
+            writeSegment(segment);
+        }
+        dirtySegments.clear();
+    }
+
+    private void writeSegment(Segment segment) {
+        Map<Long, ? extends Task> source = switch (segment.type()) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subTasks;
+        };
+        List<Task> segmentTasks = new ArrayList<>();
+        long from = segment.index() * segmentSize;
+        for (long id = from; id < from + segmentSize; id++) {
+            Task task = source.get(id);
+            if (task != null) {
+                segmentTasks.add(task);
+            }
+        }
+        File file = new File(directory, segment.fileName());
+        if (segmentTasks.isEmpty()) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при сохранении сегмента: " + file.getAbsolutePath(), e);
+            }
+            return;
+        }
+        StringBuilder content = new StringBuilder(CSV_HEADER).append('\n');
+        for (Task task : segmentTasks) {
+            TaskCsvCodec.appendRow(content, task);
+            content.append('\n');
+        }
+        FileBackedTaskManager.writeAtomically(file, content.toString().getBytes(StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized Long create(Task task) {
+        Long id = super.create(task);
+        markDirty(TaskType.TASK, id);
+        save();
+        return id;
+    }
+
+    /**
+     * @param task
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Task task) {
+        boolean result = super.update(task);
+        if (result) {
+            markDirty(TaskType.TASK, task.getId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized Long create(Epic epic) {
+        Long id = super.create(epic);
+        markDirty(TaskType.EPIC, id);
+        save();
+        return id;
+    }
+
+    /**
+     * @param epic
+     * @return
+     */
+    @Override
+    public synchronized boolean update(Epic epic) {
+        boolean result = super.update(epic);
+        if (result) {
+            markDirty(TaskType.EPIC, epic.getId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized Long create(SubTask subTask) {
+        Long id = super.create(subTask);
+        if (id != null) {
+            markDirty(TaskType.SUBTASK, id);
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+            save();
+        }
+        return id;
+    }
+
+    /**
+     * @param subTask
+     * @return
+     */
+    @Override
+    public synchronized boolean update(SubTask subTask) {
+        boolean result = super.update(subTask);
+        if (result) {
+            markDirty(TaskType.SUBTASK, subTask.getId());
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+            save();
+        }
+        return result;
+    }
+
+    /**
+     * @param batch
+     * @return
+     */
+    @Override
+    public synchronized BatchResult createAll(Collection<? extends Task> batch) {
+        BatchResult result;
+        saveSuspended = true;
+        try {
+            result = super.createAll(batch);
+        } finally {
+            saveSuspended = false;
+        }
+        save();
+        return result;
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearTasks() {
+        markDirty(TaskType.TASK, tasks.keySet());
+        super.clearTasks();
+        save();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearEpics() {
+        markDirty(TaskType.EPIC, epics.keySet());
+        markDirty(TaskType.SUBTASK, subTasks.keySet());
+        super.clearEpics();
+        save();
+    }
+
+    /**
+     *
+     */
+    @Override
+    public synchronized void clearSubTasks() {
+        markDirty(TaskType.SUBTASK, subTasks.keySet());
+        markDirty(TaskType.EPIC, epics.keySet());
+        super.clearSubTasks();
+        save();
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeTask(Long id) {
+        if (tasks.containsKey(id)) {
+            markDirty(TaskType.TASK, id);
+        }
+        super.removeTask(id);
+        save();
+    }
+
+    /**
+     * @param id
+     */
+    @Override
+    public synchronized void removeEpic(Long id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            markDirty(TaskType.EPIC, id);
+            markDirty(TaskType.SUBTASK, epic.getSubTaskIds());
+        }
+        super.removeEpic(id);
+        save();
+    }
+
+    /**
+     * @param subtaskId
+     */
+    @Override
+    public synchronized void removeSubTask(Long subtaskId) {
+        SubTask subTask = subTasks.get(subtaskId);
+        if (subTask != null) {
+            markDirty(TaskType.SUBTASK, subtaskId);
+            markDirty(TaskType.EPIC, subTask.getEpicId());
+        }
+        super.removeSubTask(subtaskId);
+        save();
+    }
+}
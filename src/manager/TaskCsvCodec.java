@@ -0,0 +1,362 @@
+package manager;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Кодек строки CSV формата FileBackedTaskManager: id,type,name,status,description,epic,start,end,duration.
+ * Строковые поля экранируются по RFC 4180: поле с запятой, кавычкой или переводом строки заключается
+ * в кавычки, а кавычки внутри удваиваются. Запись идет в переиспользуемый буфер без промежуточных строк,
+ * чтение разбирает строку на месте: числа, перечисления и даты читаются без выделения подстрок.
+ * Незаэкранированные строки прежнего формата читаются как раньше.
+ */
+public class TaskCsvCodec {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String NULL = "null";
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final StringBuilder row = new StringBuilder(128);
+    private char[] chars = new char[128];
+
+    /**
+     * @param task
+     * @return строка в переиспользуемом буфере, действительна до следующего вызова
+     */
+    public CharSequence encode(Task task) {
+        row.setLength(0);
+        appendRow(row, task);
+        return row;
+    }
+
+    /**
+     * Записывает строку задачи с переводом строки без создания промежуточных объектов.
+     *
+     * @param task
+     * @param writer
+     * @throws IOException
+     */
+    public void write(Task task, Writer writer) throws IOException {
+        encode(task);
+        row.append('\n');
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        row.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    public static void appendRow(StringBuilder out, Task task) {
+        TaskType type = task instanceof SubTask ? TaskType.SUBTASK
+                : task instanceof Epic ? TaskType.EPIC : TaskType.TASK;
+        out.append(task.getId()).append(SEPARATOR).append(type.name()).append(SEPARATOR);
+        appendString(out, task.getName());
+        out.append(SEPARATOR).append(task.getStatus() == null ? NULL : task.getStatus().name()).append(SEPARATOR);
+        appendString(out, task.getDescription());
+        out.append(SEPARATOR);
+        if (task instanceof SubTask subTask) {
+            out.append(subTask.getEpicId());
+        }
+        out.append(SEPARATOR);
+        appendDateTime(out, task.getStartTime());
+        out.append(SEPARATOR);
+        appendDateTime(out, task.getEndTime());
+        out.append(SEPARATOR).append(task.getDuration().toMinutes());
+    }
+
+    /**
+     * Пишет строку, экранируя ее по RFC 4180; отсутствующее значение пишется словом null без кавычек,
+     * а строка "null" - в кавычках, чтобы их можно было различить при чтении.
+     */
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+        if (!needsQuotes(value) && !value.equals(NULL)) {
+            out.append(value);
+            return;
+        }
+        out.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                out.append(QUOTE);
+            }
+            out.append(c);
+        }
+        out.append(QUOTE);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Пишет дату в том же виде, что и {@link LocalDateTime#toString()}.
+     */
+    private static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.append(NULL);
+            return;
+        }
+        if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            out.append(dateTime);
+            return;
+        }
+        appendDigits(out, dateTime.getYear(), 4);
+        appendDigits(out.append('-'), dateTime.getMonthValue(), 2);
+        appendDigits(out.append('-'), dateTime.getDayOfMonth(), 2);
+        appendDigits(out.append('T'), dateTime.getHour(), 2);
+        appendDigits(out.append(':'), dateTime.getMinute(), 2);
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second == 0 && nano == 0) {
+            return;
+        }
+        appendDigits(out.append(':'), second, 2);
+        if (nano == 0) {
+            return;
+        }
+        out.append('.');
+        if (nano % 1_000_000 == 0) {
+            appendDigits(out, nano / 1_000_000, 3);
+        } else if (nano % 1_000 == 0) {
+            appendDigits(out, nano / 1_000, 6);
+        } else {
+            appendDigits(out, nano, 9);
+        }
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    /**
+     * @param line
+     * @return задача, эпик или подзадача
+     * @throws IllegalArgumentException        при нарушении формата строки
+     * @throws java.time.DateTimeException     при некорректной дате
+     */
+    public static Task decode(CharSequence line) {
+        Tokenizer tokenizer = new Tokenizer(line);
+        long id = tokenizer.nextLong();
+        TaskType type = tokenizer.nextEnum(TYPES);
+        String name = tokenizer.nextString();
+        TaskStatus status = tokenizer.nextNull() ? null : tokenizer.nextEnum(STATUSES);
+        String description = tokenizer.nextString();
+        long epicId = type == TaskType.SUBTASK ? tokenizer.nextLong() : tokenizer.skip();
+        LocalDateTime startTime = tokenizer.nextDateTime();
+        LocalDateTime endTime = tokenizer.nextDateTime();
+        Duration duration = Duration.ofMinutes(tokenizer.nextLong());
+
+        return switch (type) {
+            case TASK -> new Task(id, name, description, status, startTime, duration);
+            case EPIC -> new Epic(id, name, description, status, startTime, endTime, duration);
+            case SUBTASK -> new SubTask(id, epicId, name, description, status, startTime, duration);
+        };
+    }
+
+    /**
+     * Последовательный разбор полей строки по позиции, без выделения подстрок для нестроковых полей.
+     */
+    private static class Tokenizer {
+        private final CharSequence line;
+        private int position;
+        private boolean first = true;
+
+        Tokenizer(CharSequence line) {
+            this.line = line;
+        }
+
+        /**
+         * Переходит к началу следующего поля и возвращает позицию его конца.
+         */
+        private int nextField() {
+            if (!first) {
+                if (position >= line.length() || line.charAt(position) != SEPARATOR) {
+                    throw new IllegalArgumentException("Ожидается разделитель в позиции " + position);
+                }
+                position++;
+            }
+            first = false;
+            int end = position;
+            while (end < line.length() && line.charAt(end) != SEPARATOR) {
+                end++;
+            }
+            return end;
+        }
+
+        long nextLong() {
+            int end = nextField();
+            if (position == end) {
+                throw new IllegalArgumentException("Ожидается число в позиции " + position);
+            }
+            boolean negative = line.charAt(position) == '-';
+            int i = negative ? position + 1 : position;
+            long value = 0;
+            for (; i < end; i++) {
+                char c = line.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new IllegalArgumentException("Ожидается число в позиции " + position);
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            }
+            position = end;
+            return negative ? -value : value;
+        }
+
+        long skip() {
+            position = nextField();
+            return 0;
+        }
+
+        /**
+         * Проверяет, содержит ли следующее поле значение null; если да - поле пропускается.
+         */
+        boolean nextNull() {
+            int start = first ? position : position + 1;
+            int end = start + NULL.length();
+            if (end <= line.length() && (end == line.length() || line.charAt(end) == SEPARATOR)
+                    && regionMatches(start, NULL)) {
+                nextField();
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        <E extends Enum<E>> E nextEnum(E[] values) {
+            int end = nextField();
+            for (E value : values) {
+                String name = value.name();
+                if (name.length() == end - position && regionMatches(position, name)) {
+                    position = end;
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное значение " + line.subSequence(position, end)
+                    + " в позиции " + position);
+        }
+
+        String nextString() {
+            if (first) {
+                first = false;
+            } else {
+                if (position >= line.length() || line.charAt(position) != SEPARATOR) {
+                    throw new IllegalArgumentException("Ожидается разделитель в позиции " + position);
+                }
+                position++;
+            }
+            if (position < line.length() && line.charAt(position) == QUOTE) {
+                return nextQuoted();
+            }
+            int start = position;
+            while (position < line.length() && line.charAt(position) != SEPARATOR) {
+                position++;
+            }
+            String value = line.subSequence(start, position).toString();
+            return value.equals(NULL) ? null : value;
+        }
+
+        private String nextQuoted() {
+            StringBuilder value = new StringBuilder();
+            int i = position + 1;
+            while (true) {
+                if (i >= line.length()) {
+                    throw new IllegalArgumentException("Незакрытая кавычка в позиции " + position);
+                }
+                char c = line.charAt(i);
+                if (c == QUOTE) {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                        value.append(QUOTE);
+                        i += 2;
+                        continue;
+                    }
+                    position = i + 1;
+                    return value.toString();
+                }
+                value.append(c);
+                i++;
+            }
+        }
+
+        LocalDateTime nextDateTime() {
+            if (nextNull()) {
+                return null;
+            }
+            int end = nextField();
+            int start = position;
+            position = end;
+            int length = end - start;
+            if ((length == 16 || length >= 19) && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-'
+                    && line.charAt(start + 10) == 'T' && line.charAt(start + 13) == ':'
+                    && (length == 16 || line.charAt(start + 16) == ':')) {
+                int second = length == 16 ? 0 : digits(start + 17, 2);
+                int nano = 0;
+                if (length > 19) {
+                    if (line.charAt(start + 19) != '.' || length > 29 || length == 20) {
+                        return LocalDateTime.parse(line.subSequence(start, end));
+                    }
+                    nano = digits(start + 20, length - 20);
+                    for (int i = length - 20; i < 9; i++) {
+                        nano *= 10;
+                    }
+                }
+                return LocalDateTime.of(digits(start, 4), digits(start + 5, 2), digits(start + 8, 2),
+                        digits(start + 11, 2), digits(start + 14, 2), second, nano);
+            }
+            return LocalDateTime.parse(line.subSequence(start, end));
+        }
+
+        private int digits(int from, int count) {
+            int value = 0;
+            for (int i = from; i < from + count; i++) {
+                char c = line.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new IllegalArgumentException("Ожидается цифра в позиции " + i);
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        private boolean regionMatches(int from, String value) {
+            if (from + value.length() > line.length()) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (line.charAt(from + i) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package manager;
 
+import models.BatchResult;
 import models.Epic;
 import models.SubTask;
 import models.Task;
+import models.TaskPage;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskManager {
@@ -20,6 +25,8 @@ public interface TaskManager {
 
     boolean update(SubTask subTask);
 
+    BatchResult createAll(Collection<? extends Task> batch);
+
     Task getTask(Long id);
 
     Epic getEpic(Long id);
@@ -48,5 +55,17 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(String userId);
+
     List<Task> getPrioritizedTasks(boolean sort);
+
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getPrioritizedTasks(boolean sort, int offset, int limit);
+
+    TaskPage getPrioritizedPage(String cursor, int limit, boolean sort);
+
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration);
+
+    List<LocalDateTime> findFreeSlots(LocalDateTime from, Duration duration, int count);
 }
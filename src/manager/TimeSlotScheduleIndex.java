@@ -0,0 +1,212 @@
+package manager;
+
+import models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Индекс занятости времени на сетке фиксированных слотов (например, по 15 минут).
+ * Занятость слотов хранится битовой картой long[]; слот помечается, если его хотя бы частично
+ * занимает задача. Свободный диапазон подтверждается по битовой карте, а при совпадении битов
+ * (в том числе из-за невыровненных сроков) проверка выполняется точно по {@link IntervalTree}.
+ */
+public class TimeSlotScheduleIndex implements ScheduleIndex {
+    public static final Duration DEFAULT_SLOT = Duration.ofMinutes(15);
+    private static final int MAX_WORDS = 1 << 20;
+
+    private final long slotSeconds;
+    private final IntervalTree exact = new IntervalTree();
+    private long[] words = new long[0];
+    private long firstSlot;
+    private final Set<Long> unmapped = new HashSet<>();
+
+    public TimeSlotScheduleIndex() {
+        this(DEFAULT_SLOT);
+    }
+
+    public TimeSlotScheduleIndex(Duration slot) {
+        if (slot.getSeconds() <= 0 || slot.getNano() != 0) {
+            throw new IllegalArgumentException("Размер слота должен быть целым положительным числом секунд: " + slot);
+        }
+        this.slotSeconds = slot.getSeconds();
+    }
+
+    @Override
+    public void put(Task task) {
+        remove(task.getId());
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = ScheduleIndex.endOf(task);
+        if (start == null || end == null) {
+            return;
+        }
+        exact.put(task);
+        long from = firstSlotOf(start);
+        long to = lastSlotOf(start, end);
+        if (ensureCapacity(from, to)) {
+            mark(from, to);
+        } else {
+            unmapped.add(task.getId());
+        }
+    }
+
+    @Override
+    public boolean remove(Long id) {
+        if (!exact.contains(id)) {
+            return false;
+        }
+        LocalDateTime start = exact.startTimeOf(id);
+        LocalDateTime end = exact.endTimeOf(id);
+        exact.remove(id);
+        if (unmapped.remove(id)) {
+            return true;
+        }
+        long from = firstSlotOf(start);
+        long to = lastSlotOf(start, end);
+        unmark(from, to);
+        LocalDateTime rangeStart = slotStart(from);
+        LocalDateTime rangeEnd = slotStart(to + 1);
+        for (Task neighbour : exact.findIntercepts(rangeStart.minusNanos(1), rangeEnd)) {
+            LocalDateTime neighbourStart = exact.startTimeOf(neighbour.getId());
+            LocalDateTime neighbourEnd = exact.endTimeOf(neighbour.getId());
+            long neighbourFrom = Math.max(from, firstSlotOf(neighbourStart));
+            long neighbourTo = Math.min(to, lastSlotOf(neighbourStart, neighbourEnd));
+            if (neighbourFrom <= neighbourTo) {
+                mark(neighbourFrom, neighbourTo);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Long id) {
+        return exact.contains(id);
+    }
+
+    @Override
+    public int size() {
+        return exact.size();
+    }
+
+    @Override
+    public void clear() {
+        exact.clear();
+        words = new long[0];
+        firstSlot = 0;
+        unmapped.clear();
+    }
+
+    @Override
+    public Task findIntercept(LocalDateTime start, LocalDateTime end, Predicate<Task> exclude) {
+        if (isFree(start, end)) {
+            return null;
+        }
+        return exact.findIntercept(start, end, exclude);
+    }
+
+    @Override
+    public List<Task> findIntercepts(LocalDateTime start, LocalDateTime end) {
+        if (isFree(start, end)) {
+            return List.of();
+        }
+        return exact.findIntercepts(start, end);
+    }
+
+    private boolean isFree(LocalDateTime start, LocalDateTime end) {
+        if (!unmapped.isEmpty()) {
+            return false;
+        }
+        long from = Math.max(firstSlotOf(start), firstSlot);
+        long to = Math.min(lastSlotOf(start, end), firstSlot + (long) words.length * Long.SIZE - 1);
+        if (from > to) {
+            return true;
+        }
+        int fromWord = (int) ((from - firstSlot) >>> 6);
+        int toWord = (int) ((to - firstSlot) >>> 6);
+        for (int i = fromWord; i <= toWord; i++) {
+            long mask = -1L;
+            if (i == fromWord) {
+                mask &= -1L << (from - firstSlot);
+            }
+            if (i == toWord) {
+                mask &= -1L >>> (Long.SIZE - 1 - ((to - firstSlot) & 63));
+            }
+            if ((words[i] & mask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void mark(long from, long to) {
+        for (long slot = from; slot <= to; ) {
+            int word = (int) ((slot - firstSlot) >>> 6);
+            int bit = (int) ((slot - firstSlot) & 63);
+            int count = (int) Math.min(Long.SIZE - bit, to - slot + 1);
+            words[word] |= (count == Long.SIZE ? -1L : ((1L << count) - 1)) << bit;
+            slot += count;
+        }
+    }
+
+    private void unmark(long from, long to) {
+        for (long slot = from; slot <= to; ) {
+            int word = (int) ((slot - firstSlot) >>> 6);
+            int bit = (int) ((slot - firstSlot) & 63);
+            int count = (int) Math.min(Long.SIZE - bit, to - slot + 1);
+            words[word] &= ~((count == Long.SIZE ? -1L : ((1L << count) - 1)) << bit);
+            slot += count;
+        }
+    }
+
+    private boolean isMapped(long from, long to) {
+        return words.length > 0 && from >= firstSlot && to < firstSlot + (long) words.length * Long.SIZE;
+    }
+
+    /**
+     * Расширяет горизонт планирования так, чтобы он покрывал слоты [from, to].
+     *
+     * @return false, если горизонт превысил бы допустимый размер
+     */
+    private boolean ensureCapacity(long from, long to) {
+        if (isMapped(from, to)) {
+            return true;
+        }
+        long newFirstSlot = words.length == 0 ? Math.floorDiv(from, Long.SIZE) * Long.SIZE
+                : Math.min(firstSlot, Math.floorDiv(from, Long.SIZE) * Long.SIZE);
+        long lastSlot = words.length == 0 ? to : Math.max(to, firstSlot + (long) words.length * Long.SIZE - 1);
+        long requiredWords = (lastSlot - newFirstSlot) / Long.SIZE + 1;
+        if (requiredWords > MAX_WORDS) {
+            return false;
+        }
+        int newLength = (int) Math.min(MAX_WORDS, Math.max(requiredWords, (long) words.length * 2));
+        if (words.length == 0 || newFirstSlot == firstSlot) {
+            words = Arrays.copyOf(words, newLength);
+        } else {
+            long[] newWords = new long[newLength];
+            int shift = (int) ((firstSlot - newFirstSlot) / Long.SIZE);
+            System.arraycopy(words, 0, newWords, shift, Math.min(words.length, newLength - shift));
+            words = newWords;
+        }
+        firstSlot = newFirstSlot;
+        return true;
+    }
+
+    private long firstSlotOf(LocalDateTime start) {
+        return Math.floorDiv(start.toEpochSecond(ZoneOffset.UTC), slotSeconds);
+    }
+
+    private long lastSlotOf(LocalDateTime start, LocalDateTime end) {
+        long endSecond = end.toEpochSecond(ZoneOffset.UTC) + (end.getNano() > 0 ? 1 : 0);
+        return Math.max(firstSlotOf(start), Math.floorDiv(endSecond - 1, slotSeconds));
+    }
+
+    private LocalDateTime slotStart(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * slotSeconds, 0, ZoneOffset.UTC);
+    }
+}
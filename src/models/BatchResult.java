@@ -0,0 +1,39 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Результат пакетного создания задач: либо созданы все задачи, либо ни одной.
+ */
+public class BatchResult {
+    private final List<Long> ids;
+    private final List<ScheduleConflict> conflicts;
+
+    public BatchResult(List<Long> ids, List<ScheduleConflict> conflicts) {
+        this.ids = ids;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * @return идентификаторы созданных задач в порядке пакета; пусто, если пакет отклонен
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public List<ScheduleConflict> getConflicts() {
+        return conflicts;
+    }
+
+    public boolean isCommitted() {
+        return conflicts.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "ids=" + ids +
+                ", conflicts=" + conflicts +
+                '}';
+    }
+}
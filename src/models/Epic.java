@@ -30,6 +30,12 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
+    public Epic(Epic epic) {
+        super(epic);
+        this.subTaskIds.addAll(epic.subTaskIds);
+        this.endTime = epic.endTime;
+    }
+
     public void setDuration(Long duration) {
         this.duration = Duration.ofMinutes(duration);
     }
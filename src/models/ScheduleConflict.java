@@ -0,0 +1,40 @@
+package models;
+
+/**
+ * Конфликт, найденный при пакетной проверке задач.
+ */
+public class ScheduleConflict {
+    private final Task task;
+    private final Task conflictingTask;
+    private final String message;
+
+    public ScheduleConflict(Task task, Task conflictingTask, String message) {
+        this.task = task;
+        this.conflictingTask = conflictingTask;
+        this.message = message;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * @return задача, с которой пересекается срок, или null, если конфликт не связан со сроками
+     */
+    public Task getConflictingTask() {
+        return conflictingTask;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleConflict{" +
+                "task=" + task +
+                ", conflictingTask=" + conflictingTask +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package models;
+
+import java.time.Duration;
+
+/**
+ * Итог записи снимка: сколько задач и байт записано и сколько времени это заняло.
+ */
+public class SnapshotStats {
+    private final int taskCount;
+    private final long bytesWritten;
+    private final Duration captureDuration;
+    private final Duration duration;
+
+    public SnapshotStats(int taskCount, long bytesWritten, Duration captureDuration, Duration duration) {
+        this.taskCount = taskCount;
+        this.bytesWritten = bytesWritten;
+        this.captureDuration = captureDuration;
+        this.duration = duration;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return время снятия состояния под блокировкой менеджера, на которое задерживаются изменения
+     */
+    public Duration getCaptureDuration() {
+        return captureDuration;
+    }
+
+    /**
+     * @return полное время от снятия состояния до записи файла на диск
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotStats{" +
+                "taskCount=" + taskCount +
+                ", bytesWritten=" + bytesWritten +
+                ", captureDuration=" + captureDuration +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -26,6 +26,11 @@ public class SubTask extends Task {
         this.epicId = epicId;
     }
 
+    public SubTask(SubTask subTask) {
+        super(subTask);
+        this.epicId = subTask.epicId;
+    }
+
     public long getEpicId() {
         return epicId;
     }
@@ -5,11 +5,13 @@ import enums.TaskStatus;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 public class Task {
     private Long id;
     private String name;
     private String description;
+    private Supplier<String> descriptionSource;
     private TaskStatus status;
     Duration duration;
     LocalDateTime startTime;
@@ -63,6 +65,21 @@ public class Task {
         this.duration = duration;
     }
 
+    /**
+     * Копирует задачу вместе с источником описания, не вычисляя его.
+     *
+     * @param task
+     */
+    public Task(Task task) {
+        this.id = task.id;
+        this.name = task.name;
+        this.description = task.description;
+        this.descriptionSource = task.descriptionSource;
+        this.status = task.status;
+        this.startTime = task.startTime;
+        this.duration = task.duration;
+    }
+
     public Long getId() {
         return id;
     }
@@ -80,11 +97,30 @@ public class Task {
     }
 
     public String getDescription() {
-        return description;
+        Supplier<String> source = descriptionSource;
+        return source != null ? source.get() : description;
     }
 
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionSource = null;
+    }
+
+    /**
+     * Задает описание, которое вычисляется при каждом обращении, например декодируется из загруженного снимка.
+     *
+     * @param descriptionSource
+     */
+    public void setDescriptionSource(Supplier<String> descriptionSource) {
+        this.description = null;
+        this.descriptionSource = descriptionSource;
+    }
+
+    /**
+     * @return источник описания, заданный {@link #setDescriptionSource(Supplier)}, или null, если описание хранится в задаче
+     */
+    public Supplier<String> getDescriptionSource() {
+        return descriptionSource;
     }
 
     public TaskStatus getStatus() {
@@ -128,7 +164,7 @@ public class Task {
         return "Task{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
-                ", description='" + description + '\'' +
+                ", description='" + getDescription() + '\'' +
                 ", status=" + status +
                 '}';
     }
@@ -0,0 +1,45 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Страница списка задач по приоритету с курсорами для перехода к соседним страницам.
+ */
+public class TaskPage {
+    private final List<Task> tasks;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    public TaskPage(List<Task> tasks, String nextCursor, String previousCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return курсор для продолжения в том же направлении или null, если страница последняя
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return курсор для перехода в обратном направлении или null, если страница пустая
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPage{" +
+                "tasks=" + tasks +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", previousCursor='" + previousCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.BlobDescriptionTaskManager;
+import manager.InMemoryTaskManager;
+import manager.Managers;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Память, занимаемая доской, когда описания хранятся в задачах и когда они вынесены в файл,
+ * и время чтения описаний из файла.
+ * Запуск: java benchmark.BlobDescriptionBenchmark [количество задач] [длина описания]
+ */
+public class BlobDescriptionBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int descriptionLength = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        System.out.printf("rows %d, description %d chars%n", rows, descriptionLength);
+        System.out.printf("%-8s %12s %14s %12s%n", "mode", "heap, MB", "read all, ms", "chars");
+
+        long baseline = usedMemory();
+        InMemoryTaskManager inMemory = new InMemoryTaskManager(Managers.getDefaultHistory());
+        fill(inMemory, rows, descriptionLength);
+        report("inline", inMemory, usedMemory() - baseline);
+        inMemory = null;
+
+        File blobFile = File.createTempFile("blob-benchmark", ".blob");
+        blobFile.deleteOnExit();
+        baseline = usedMemory();
+        try (BlobDescriptionTaskManager blob = new BlobDescriptionTaskManager(Managers.getDefaultHistory(),
+                blobFile)) {
+            fill(blob, rows, descriptionLength);
+            report("blob", blob, usedMemory() - baseline);
+        }
+        blobFile.delete();
+    }
+
+    private static void fill(InMemoryTaskManager manager, int rows, int descriptionLength) {
+        StringBuilder description = new StringBuilder();
+        String[] words = {"задача", "проверить", "сборку", "отчет", "клиент", "релиз", "исправить", "тест"};
+        List<Task> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            description.setLength(0);
+            while (description.length() < descriptionLength) {
+                description.append(words[(i + description.length()) % words.length]).append(' ');
+            }
+            batch.add(new Task("Задача " + i, description.toString(), TaskStatus.NEW));
+        }
+        manager.createAll(batch);
+    }
+
+    private static void report(String mode, InMemoryTaskManager manager, long heap) {
+        long start = System.nanoTime();
+        long chars = 0;
+        for (Task task : manager.getTasks()) {
+            chars += task.getDescription().length();
+        }
+        System.out.printf("%-8s %12d %14d %12d%n", mode, heap / (1024 * 1024),
+                (System.nanoTime() - start) / 1_000_000, chars);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.BufferedHistoryManager;
+import manager.ConcurrentHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Пропускная способность истории просмотров от 1 до N потоков: {@link InMemoryHistoryManager}
+ * под общей блокировкой, {@link ConcurrentHistoryManager} и {@link BufferedHistoryManager}. Каждый поток просматривает случайные задачи,
+ * изредка удаляет их и запрашивает историю.
+ * Запуск: java benchmark.ConcurrentHistoryBenchmark [наибольшее число потоков] [количество задач]
+ */
+public class ConcurrentHistoryBenchmark {
+    private static final long MEASURE_MILLIS = 1_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Task[] tasks = new Task[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task((long) i, "Задача " + i, "Описание", TaskStatus.NEW);
+        }
+
+        System.out.printf("tasks %d%n", taskCount);
+        System.out.printf("%-8s %16s %18s %16s%n", "threads", "locked, ops/ms", "concurrent, ops/ms",
+                "buffered, ops/ms");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long locked = run(threads, SynchronizedHistoryManager::new, tasks);
+            long concurrent = run(threads, ConcurrentHistoryManager::new, tasks);
+            long buffered = run(threads, BufferedHistoryManager::new, tasks);
+            System.out.printf("%-8d %16d %18d %16d%n", threads, locked, concurrent, buffered);
+        }
+    }
+
+    private static long run(int threads, Supplier<HistoryManager> factory, Task[] tasks)
+            throws InterruptedException {
+        HistoryManager historyManager = factory.get();
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        LongAdder ops = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int op = random.nextInt(1_000);
+                    Task task = tasks[random.nextInt(tasks.length)];
+                    if (op == 0) {
+                        historyManager.getHistory();
+                    } else if (op < 50) {
+                        historyManager.remove(task.getId());
+                    } else {
+                        historyManager.add(task);
+                    }
+                    if (measuring.get()) {
+                        ops.increment();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(MEASURE_MILLIS / 2);
+        measuring.set(true);
+        Thread.sleep(MEASURE_MILLIS);
+        measuring.set(false);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum() / MEASURE_MILLIS;
+    }
+
+    private static class SynchronizedHistoryManager implements HistoryManager {
+        private final InMemoryHistoryManager delegate = new InMemoryHistoryManager();
+
+        @Override
+        public synchronized void add(Task task) {
+            delegate.add(task);
+        }
+
+        @Override
+        public synchronized void remove(Long id) {
+            delegate.remove(id);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return delegate.getHistory();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import manager.FileBackedTaskManager;
+import manager.TaskCsvCodec;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Сравнение сериализации строк CSV: прежняя реализация на String.format и split(",")
+ * против кодека, используемого FileBackedTaskManager.
+ * Запуск: java benchmark.CsvCodecBenchmark [количество задач]
+ */
+public class CsvCodecBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        File file = File.createTempFile("codec-benchmark", ".csv");
+        file.deleteOnExit();
+        LoadFromFileBenchmark.writeBoard(file, size);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+        Task[] tasks = manager.getEpics().toArray(new Task[0]);
+        Task[] subTasks = manager.getSubTasks().toArray(new Task[0]);
+        Task[] all = new Task[tasks.length + subTasks.length];
+        System.arraycopy(tasks, 0, all, 0, tasks.length);
+        System.arraycopy(subTasks, 0, all, tasks.length, subTasks.length);
+        String[] rows = new String[all.length];
+        for (int i = 0; i < all.length; i++) {
+            rows[i] = legacyToString(all[i]);
+        }
+
+        TaskCsvCodec codec = new TaskCsvCodec();
+        for (int round = 0; round < 5; round++) {
+            long checksum = 0;
+            long start = System.nanoTime();
+            for (Task task : all) {
+                checksum += legacyToString(task).length();
+            }
+            long legacyWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Task task : all) {
+                checksum += codec.encode(task).length();
+            }
+            long codecWrite = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String row : rows) {
+                checksum += legacyFromString(row).getId();
+            }
+            long legacyRead = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String row : rows) {
+                checksum += TaskCsvCodec.decode(row).getId();
+            }
+            long codecRead = System.nanoTime() - start;
+
+            System.out.printf("round %d, rows %d: write format %5d ms, codec %5d ms; "
+                            + "read split %5d ms, codec %5d ms (%d)%n", round, all.length,
+                    legacyWrite / 1_000_000, codecWrite / 1_000_000,
+                    legacyRead / 1_000_000, codecRead / 1_000_000, checksum);
+        }
+        file.delete();
+    }
+
+    private static String legacyToString(Task task) {
+        if (task instanceof SubTask subtask) {
+            return String.format("%d,%s,%s,%s,%s,%d,%s,%s,%s", subtask.getId(), TaskType.SUBTASK,
+                    subtask.getName(), subtask.getStatus(), subtask.getDescription(), subtask.getEpicId(),
+                    subtask.getStartTime(), subtask.getEndTime(), subtask.getDuration().toMinutes());
+        }
+        return String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s", task.getId(),
+                task instanceof Epic ? TaskType.EPIC : TaskType.TASK, task.getName(), task.getStatus(),
+                task.getDescription(), "", task.getStartTime(), task.getEndTime(), task.getDuration().toMinutes());
+    }
+
+    private static Task legacyFromString(String value) {
+        String[] fields = value.split(",");
+        Long id = Long.parseLong(fields[0]);
+        TaskType type = TaskType.valueOf(fields[1]);
+        TaskStatus status = "null".equals(fields[3]) ? null : TaskStatus.valueOf(fields[3]);
+        LocalDateTime startTime = "null".equals(fields[6]) ? null : LocalDateTime.parse(fields[6]);
+        LocalDateTime endTime = "null".equals(fields[7]) ? null : LocalDateTime.parse(fields[7]);
+        Duration duration = Duration.ofMinutes(Long.parseLong(fields[8]));
+        return switch (type) {
+            case TASK -> new Task(id, fields[2], fields[4], status, startTime, duration);
+            case EPIC -> new Epic(id, fields[2], fields[4], status, startTime, endTime, duration);
+            case SUBTASK -> new SubTask(id, Long.parseLong(fields[5]), fields[2], fields[4], status, startTime,
+                    duration);
+        };
+    }
+}
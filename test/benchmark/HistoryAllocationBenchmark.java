@@ -0,0 +1,66 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.ArrayHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import models.Task;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Память, выделяемая на один просмотр, и время просмотра для {@link InMemoryHistoryManager}
+ * и {@link ArrayHistoryManager}. Учитывается память, выделенная текущим потоком (HotSpot).
+ * Запуск: java benchmark.HistoryAllocationBenchmark [количество задач] [количество просмотров]
+ */
+public class HistoryAllocationBenchmark {
+
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int views = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Task[] tasks = new Task[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task((long) i, "Задача " + i, "Описание", TaskStatus.NEW);
+        }
+        int[] order = new int[views];
+        Random random = new Random(42);
+        for (int i = 0; i < views; i++) {
+            order[i] = random.nextInt(taskCount);
+        }
+
+        System.out.printf("tasks %d, views %d%n", taskCount, views);
+        System.out.printf("%-10s %14s %12s%n", "history", "bytes/view", "ns/view");
+        for (int round = 0; round < 3; round++) {
+            run("linked", InMemoryHistoryManager::new, tasks, order);
+            run("array", ArrayHistoryManager::new, tasks, order);
+        }
+    }
+
+    private static void run(String name, Supplier<HistoryManager> factory, Task[] tasks, int[] order) {
+        HistoryManager historyManager = factory.get();
+        for (Task task : tasks) {
+            historyManager.add(task);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < order.length; i++) {
+            Task task = tasks[order[i]];
+            if ((i & 7) == 0) {
+                historyManager.remove(task.getId());
+            } else {
+                historyManager.add(task);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-10s %14.1f %12.1f%n", name, (double) allocated / order.length,
+                (double) elapsed / order.length);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.JdbcTaskManager;
+import manager.Managers;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Время создания задачи со сроком в конце расписания для таблиц разного размера: проверка пересечений
+ * просматривает индекс только в окне наибольшей длины срока, поэтому время не должно расти с размером таблицы.
+ * Нужен драйвер H2 в classpath.
+ * Запуск: java benchmark.JdbcScheduleBenchmark [размеры через запятую] [количество вставок]
+ */
+public class JdbcScheduleBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "1000,10000,100000";
+        int inserts = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        for (String size : sizes.split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            File directory = Files.createTempDirectory("jdbc-benchmark").toFile();
+            String url = "jdbc:h2:file:" + new File(directory, "kanban").getAbsolutePath();
+            try (JdbcTaskManager manager = new JdbcTaskManager(Managers.getDefaultHistory(), url)) {
+                List<Task> batch = new ArrayList<>(rows);
+                for (int i = 0; i < rows; i++) {
+                    batch.add(task(i));
+                }
+                manager.createAll(batch);
+                for (int round = 0; round < 3; round++) {
+                    int first = rows + round * inserts;
+                    long start = System.nanoTime();
+                    for (int i = first; i < first + inserts; i++) {
+                        manager.create(task(i));
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    System.out.printf("rows %7d, round %d: %8.1f us/create%n", rows, round,
+                            elapsed / 1000.0 / inserts);
+                }
+            }
+        }
+    }
+
+    private static Task task(int i) {
+        return new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW, ORIGIN.plusMinutes(30L * i),
+                Duration.ofMinutes(15));
+    }
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import enums.SnapshotFormat;
+import manager.FileBackedTaskManager;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Время запуска FileBackedTaskManager.loadFromFile на файлах разного размера в форматах CSV и двоичном.
+ * Запуск: java benchmark.LoadFromFileBenchmark [размеры через запятую]
+ */
+public class LoadFromFileBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "10000,100000,1000000";
+        for (String size : sizes.split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            File file = File.createTempFile("load-benchmark", ".csv");
+            file.deleteOnExit();
+            writeBoard(file, rows);
+            File binaryFile = File.createTempFile("load-benchmark", ".bin");
+            binaryFile.deleteOnExit();
+            FileBackedTaskManager.loadFromFile(file).exportTo(binaryFile, SnapshotFormat.BINARY);
+            for (int round = 0; round < 3; round++) {
+                load("csv   ", file, rows, round);
+                load("binary", binaryFile, rows, round);
+            }
+            file.delete();
+            binaryFile.delete();
+        }
+    }
+
+    private static void load(String format, File file, int rows, int round) {
+        long start = System.nanoTime();
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%s rows %8d, round %d: %6d ms (%d prioritized)%n",
+                format, rows, round, elapsed, manager.getPrioritizedTasks(true).size());
+    }
+
+    /**
+     * Пишет доску в формате FileBackedTaskManager: каждая десятая строка - эпик, остальные - его подзадачи.
+     */
+    static void writeBoard(File file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("id,type,name,status,description,epic\n");
+            long epicId = 0;
+            for (long id = 1; id <= rows; id++) {
+                LocalDateTime startTime = ORIGIN.plusMinutes(id * 30);
+                if (id % 10 == 1) {
+                    epicId = id;
+                    writer.write(id + ",EPIC,Эпик " + id + ",NEW,Описание эпика,,"
+                            + startTime.plusMinutes(30) + "," + startTime.plusMinutes(300) + ",180\n");
+                } else {
+                    writer.write(id + ",SUBTASK,Подзадача " + id + ",NEW,Описание подзадачи," + epicId + ","
+                            + startTime + "," + startTime.plusMinutes(20) + ",20\n");
+                }
+            }
+        }
+    }
+}
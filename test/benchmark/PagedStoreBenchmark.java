@@ -0,0 +1,63 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.FileBackedTaskManager;
+import manager.Managers;
+import manager.PagedFileTaskManager;
+import manager.TaskManager;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Время обновления одной задачи на доске разного размера: FileBackedTaskManager перезаписывает файл целиком,
+ * PagedFileTaskManager копирует путь к записи в B+-дереве.
+ * Запуск: java benchmark.PagedStoreBenchmark [размеры через запятую] [количество обновлений]
+ */
+public class PagedStoreBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String sizes = args.length > 0 ? args[0] : "1000,10000,100000";
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        for (String size : sizes.split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            File csvFile = File.createTempFile("paged-benchmark", ".csv");
+            csvFile.deleteOnExit();
+            File pagedFile = File.createTempFile("paged-benchmark", ".pages");
+            pagedFile.delete();
+            pagedFile.deleteOnExit();
+            FileBackedTaskManager fileBacked = new FileBackedTaskManager(Managers.getDefaultHistory(), csvFile);
+            try (PagedFileTaskManager paged = new PagedFileTaskManager(Managers.getDefaultHistory(), pagedFile)) {
+                fill(fileBacked, rows);
+                fill(paged, rows);
+                for (int round = 0; round < 3; round++) {
+                    update("file-backed", fileBacked, rows, updates, round);
+                    update("paged      ", paged, rows, updates, round);
+                }
+            }
+            csvFile.delete();
+            pagedFile.delete();
+        }
+    }
+
+    private static void fill(TaskManager manager, int rows) {
+        List<Task> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+        manager.createAll(batch);
+    }
+
+    private static void update(String name, TaskManager manager, int rows, int updates, int round) {
+        long start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            long id = 1 + (long) i * 7919 % rows;
+            manager.update(new Task(id, "Задача " + id, "Обновленное описание " + round, TaskStatus.IN_PROGRESS));
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s rows %7d, round %d: %8.1f us/update%n", name, rows, round, elapsed / 1000.0 / updates);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import enums.TaskStatus;
+import manager.IntervalTree;
+import manager.ScheduleIndex;
+import manager.TimeSlotScheduleIndex;
+import models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Сравнение проверки пересечений: полный проход по TreeSet, интервальное дерево и битовая карта слотов.
+ * Запуск: java benchmark.ScheduleIndexBenchmark [количество задач]
+ */
+public class ScheduleIndexBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("round %d, tasks %d%n", round, size);
+            System.out.printf("  TreeSet scan          %8d ms%n", runTreeSet(size));
+            System.out.printf("  IntervalTree          %8d ms%n", run(new IntervalTree(), size));
+            System.out.printf("  TimeSlotScheduleIndex %8d ms%n", run(new TimeSlotScheduleIndex(), size));
+        }
+    }
+
+    private static Task task(long id) {
+        // 30-минутные задачи с шагом 45 минут; каждая вторая начинается не по границе слота
+        return new Task(id, "Задача", "Описание", TaskStatus.NEW,
+                ORIGIN.plusMinutes(id * 45 + (id % 2) * 5), Duration.ofMinutes(30));
+    }
+
+    private static long run(ScheduleIndex scheduleIndex, int size) {
+        long start = System.nanoTime();
+        int conflicts = 0;
+        for (long id = 0; id < size; id++) {
+            Task task = task(id);
+            if (scheduleIndex.findIntercept(task.getStartTime(), task.getEndTime(), t -> false) != null) {
+                conflicts++;
+            }
+            scheduleIndex.put(task);
+            LocalDateTime probe = task.getStartTime().plusMinutes(10);
+            if (scheduleIndex.findIntercept(probe, probe.plusMinutes(5), t -> false) != null) {
+                conflicts++;
+            }
+        }
+        check(conflicts, size);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long runTreeSet(int size) {
+        TreeSet<Task> sortedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        long start = System.nanoTime();
+        int conflicts = 0;
+        for (long id = 0; id < size; id++) {
+            Task task = task(id);
+            Optional<Task> taskIntercepted = sortedTasks.stream()
+                    .filter(existingTask -> isTaskTermIntercept(existingTask, task)).findFirst();
+            if (taskIntercepted.isPresent()) {
+                conflicts++;
+            }
+            sortedTasks.add(task);
+            Task probe = new Task("Проверка", "", task.getStartTime().plusMinutes(10), Duration.ofMinutes(5));
+            if (sortedTasks.stream().anyMatch(existingTask -> isTaskTermIntercept(existingTask, probe))) {
+                conflicts++;
+            }
+        }
+        check(conflicts, size);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static boolean isTaskTermIntercept(Task task1, Task task2) {
+        return task1.getStartTime().isBefore(task2.getEndTime()) && task2.getStartTime().isBefore(task1.getEndTime());
+    }
+
+    private static void check(int conflicts, int size) {
+        if (conflicts != size) {
+            throw new IllegalStateException("Ожидалось пересечений: " + size + ", получено: " + conflicts);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import enums.SnapshotFormat;
+import manager.FileBackedTaskManager;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.zip.Deflater;
+
+/**
+ * Размер файла и время сохранения/загрузки снимка в разных форматах и с разным уровнем сжатия.
+ * Запуск: java benchmark.SnapshotCompressionBenchmark [количество задач] [длина описания]
+ */
+public class SnapshotCompressionBenchmark {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int descriptionLength = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        File source = File.createTempFile("compression-benchmark", ".csv");
+        source.deleteOnExit();
+        writeBoard(source, rows, descriptionLength);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(source);
+
+        System.out.printf("rows %d, description %d chars%n", rows, descriptionLength);
+        System.out.printf("%-12s %12s %10s %10s%n", "format", "size, KB", "save, ms", "load, ms");
+        run(manager, SnapshotFormat.CSV, Deflater.DEFAULT_COMPRESSION);
+        run(manager, SnapshotFormat.CSV_GZIP, Deflater.BEST_SPEED);
+        run(manager, SnapshotFormat.CSV_GZIP, Deflater.DEFAULT_COMPRESSION);
+        run(manager, SnapshotFormat.CSV_GZIP, Deflater.BEST_COMPRESSION);
+        run(manager, SnapshotFormat.BINARY, Deflater.DEFAULT_COMPRESSION);
+        source.delete();
+    }
+
+    private static void run(FileBackedTaskManager manager, SnapshotFormat format, int level) throws IOException {
+        File target = File.createTempFile("compression-benchmark", ".snapshot");
+        target.deleteOnExit();
+        long save = Long.MAX_VALUE;
+        long load = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            manager.exportTo(target, format, level);
+            save = Math.min(save, System.nanoTime() - start);
+            start = System.nanoTime();
+            FileBackedTaskManager.loadFromFile(target);
+            load = Math.min(load, System.nanoTime() - start);
+        }
+        String name = format == SnapshotFormat.CSV_GZIP ? "gzip:" + level : format.name().toLowerCase();
+        System.out.printf("%-12s %12d %10d %10d%n", name, target.length() / 1024, save / 1_000_000,
+                load / 1_000_000);
+        target.delete();
+    }
+
+    private static void writeBoard(File file, int rows, int descriptionLength) throws IOException {
+        StringBuilder description = new StringBuilder();
+        String[] words = {"задача", "проверить", "сборку", "отчет", "клиент", "релиз", "исправить", "тест"};
+        for (int i = 0; description.length() < descriptionLength; i++) {
+            description.append(words[(i * 7 + i / 3) % words.length]).append(' ');
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("id,type,name,status,description,epic\n");
+            for (long id = 1; id <= rows; id++) {
+                LocalDateTime startTime = ORIGIN.plusMinutes(id * 30);
+                writer.write(id + ",TASK,Задача " + id + ",NEW," + id + " " + description + ",,"
+                        + startTime + "," + startTime.plusMinutes(20) + ",20\n");
+            }
+        }
+    }
+}
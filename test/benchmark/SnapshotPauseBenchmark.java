@@ -0,0 +1,74 @@
+package benchmark;
+
+import enums.Durability;
+import enums.SnapshotFormat;
+import enums.TaskStatus;
+import manager.FileBackedTaskManager;
+import manager.Managers;
+import models.SnapshotStats;
+import models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Время снятия состояния и полной записи снимка через snapshotAsync и наибольшая задержка
+ * изменений, которые другой поток выполняет в это время.
+ * Запуск: java benchmark.SnapshotPauseBenchmark [количество задач]
+ */
+public class SnapshotPauseBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        File file = File.createTempFile("pause-benchmark", ".csv");
+        file.deleteOnExit();
+        File target = File.createTempFile("pause-benchmark", ".snapshot");
+        target.deleteOnExit();
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                0, 0, Durability.NONE)) {
+            List<Task> batch = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                batch.add(new Task("Задача " + i, "Описание задачи номер " + i, TaskStatus.NEW));
+            }
+            manager.createAll(batch);
+
+            System.out.printf("rows %d%n", rows);
+            System.out.printf("%-10s %12s %12s %14s %10s %12s%n", "format", "capture, ms", "total, ms",
+                    "max pause, ms", "updates", "size, KB");
+            for (int round = 0; round < 3; round++) {
+                run(manager, SnapshotFormat.CSV, target);
+                run(manager, SnapshotFormat.BINARY, target);
+            }
+        }
+    }
+
+    private static void run(FileBackedTaskManager manager, SnapshotFormat format, File target)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong maxPause = new AtomicLong();
+        AtomicLong updates = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            Task task = new Task(1L, "Задача", "Описание", TaskStatus.IN_PROGRESS);
+            while (running.get()) {
+                long start = System.nanoTime();
+                manager.update(task);
+                maxPause.accumulateAndGet(System.nanoTime() - start, Math::max);
+                updates.incrementAndGet();
+            }
+        });
+        writer.start();
+        Thread.sleep(50);
+        maxPause.set(0);
+        updates.set(0);
+        SnapshotStats stats = manager.snapshotAsync(target, format).join();
+        running.set(false);
+        writer.join();
+        System.out.printf("%-10s %12d %12d %14d %10d %12d%n", format.name().toLowerCase(),
+                stats.getCaptureDuration().toMillis(), stats.getDuration().toMillis(), maxPause.get() / 1_000_000,
+                updates.get(), stats.getBytesWritten() / 1024);
+    }
+}
@@ -0,0 +1,115 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest {
+    ArrayHistoryManager arrayHistoryManager;
+
+    @BeforeEach
+    void beforeEachTest() {
+        arrayHistoryManager = new ArrayHistoryManager();
+    }
+
+    private static List<Long> ids(HistoryManager historyManager) {
+        return historyManager.getHistory().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void add_shouldKeepLastViewOrder() {
+        // prepare
+        Task task = new Task(1L, "Приготовить завтрак", "Сварить макароны и пожарить котлету", TaskStatus.NEW);
+        Epic epic = new Epic(2L, "Испечь торт", "Испечь торт Наполеон");
+        SubTask subTask = new SubTask(3L, 2L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                null, null);
+
+        // do
+        arrayHistoryManager.add(task);
+        arrayHistoryManager.add(epic);
+        arrayHistoryManager.add(null);
+        arrayHistoryManager.add(subTask);
+        arrayHistoryManager.add(subTask);
+        arrayHistoryManager.add(epic);
+        arrayHistoryManager.add(task);
+
+        //check
+        assertEquals(List.of(3L, 2L, 1L), ids(arrayHistoryManager));
+        assertSame(subTask, arrayHistoryManager.getHistory().get(0));
+    }
+
+    @Test
+    void remove_shouldUnlinkStartMiddleAndEnd() {
+        // prepare
+        for (long id = 1; id <= 5; id++) {
+            arrayHistoryManager.add(new Task(id, "Задача " + id, "Описание"));
+        }
+
+        // do
+        arrayHistoryManager.remove(1L);
+        arrayHistoryManager.remove(3L);
+        arrayHistoryManager.remove(5L);
+        arrayHistoryManager.remove(42L);
+
+        //check
+        assertEquals(List.of(2L, 4L), ids(arrayHistoryManager));
+        arrayHistoryManager.remove(2L);
+        arrayHistoryManager.remove(4L);
+        assertEquals(List.of(), ids(arrayHistoryManager));
+    }
+
+    @Test
+    void add_shouldEvictEarliestViewWhenCapacityReached() {
+        // prepare
+        arrayHistoryManager = new ArrayHistoryManager(2);
+
+        // do
+        arrayHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        arrayHistoryManager.add(new Task(2L, "Задача 2", "Описание"));
+        arrayHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        arrayHistoryManager.add(new Task(3L, "Задача 3", "Описание"));
+
+        //check
+        assertEquals(List.of(1L, 3L), ids(arrayHistoryManager));
+        assertEquals(2, arrayHistoryManager.size());
+    }
+
+    @Test
+    void shouldMatchInMemoryHistoryManagerOnRandomViews() {
+        // prepare
+        InMemoryHistoryManager expected = new InMemoryHistoryManager(500);
+        arrayHistoryManager = new ArrayHistoryManager(500);
+        Random random = new Random(42);
+
+        // do
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(2_000) * 1_024L;
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                arrayHistoryManager.remove(id);
+            } else {
+                Task task = new Task(id, "Задача " + id, "Описание");
+                expected.add(task);
+                arrayHistoryManager.add(task);
+            }
+        }
+
+        //check
+        assertEquals(ids(expected), ids(arrayHistoryManager));
+        assertEquals(expected.getHistory().size(), arrayHistoryManager.size());
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        // do
+        assertThrows(IllegalArgumentException.class, () -> new ArrayHistoryManager(-1));
+    }
+}
@@ -0,0 +1,96 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Менеджеры не закрываются после тестов: общие задачи {@link TaskManagerTest} переходят из теста в тест
+ * и ссылаются на описания в файлах предыдущих менеджеров.
+ */
+class BlobDescriptionTaskManagerTest extends TaskManagerTest<BlobDescriptionTaskManager> {
+
+    private File file;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        file = File.createTempFile("test", ".blob");
+        file.deleteOnExit();
+        taskManager = new BlobDescriptionTaskManager(Managers.getDefaultHistory(), file);
+    }
+
+    @Test
+    void create_shouldMoveDescriptionsToBlobFile() {
+        // prepare
+        Task task = new Task("Купить хлеб, молоко", "Первая строка\nвторая строка", TaskStatus.NEW);
+        Epic epic = new Epic("Испечь торт", "Испечь торт Наполеон");
+
+        // do
+        final Long savedTaskId = taskManager.create(task);
+        final Long savedEpicId = taskManager.create(epic);
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт", null,
+                TaskStatus.NEW));
+
+        //check
+        assertInstanceOf(DescriptionBlobStore.Ref.class, task.getDescriptionSource());
+        assertInstanceOf(DescriptionBlobStore.Ref.class, epic.getDescriptionSource());
+        assertEquals(("Первая строка\nвторая строка" + "Испечь торт Наполеон").getBytes(StandardCharsets.UTF_8).length,
+                taskManager.blobSize());
+        assertEquals(file.length(), taskManager.blobSize());
+        assertEquals("Первая строка\nвторая строка", taskManager.getTask(savedTaskId).getDescription());
+        assertEquals("Испечь торт Наполеон", taskManager.getEpic(savedEpicId).getDescription());
+        assertNull(taskManager.getSubTask(savedSubTaskId).getDescription());
+    }
+
+    @Test
+    void update_shouldAppendOnlyChangedDescription() {
+        // prepare
+        Task task = new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW);
+        taskManager.create(task);
+        final long sizeAfterCreate = taskManager.blobSize();
+
+        // do
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.update(task);
+        final long sizeAfterStatusUpdate = taskManager.blobSize();
+        task.setDescription("Сварить овсяную кашу");
+        taskManager.update(task);
+
+        //check
+        assertEquals(sizeAfterCreate, sizeAfterStatusUpdate);
+        assertTrue(taskManager.blobSize() > sizeAfterStatusUpdate);
+        assertEquals("Сварить овсяную кашу", taskManager.getTask(task.getId()).getDescription());
+    }
+
+    @Test
+    void getDescription_shouldKeepCacheBounded() throws IOException {
+        // prepare
+        taskManager.close();
+        taskManager = new BlobDescriptionTaskManager(Managers.getDefaultHistory(), file, 2);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(taskManager.create(new Task("Задача " + i, "Описание " + i, TaskStatus.NEW)));
+        }
+
+        // do
+        List<String> descriptions = new ArrayList<>();
+        for (Long id : ids) {
+            descriptions.add(taskManager.getTask(id).getDescription());
+        }
+
+        //check
+        assertEquals(List.of("Описание 0", "Описание 1", "Описание 2", "Описание 3", "Описание 4"), descriptions);
+        assertEquals(2, taskManager.cachedDescriptions());
+    }
+}
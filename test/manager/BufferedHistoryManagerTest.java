@@ -0,0 +1,149 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedHistoryManagerTest {
+    BufferedHistoryManager bufferedHistoryManager;
+
+    @BeforeEach
+    void beforeEachTest() {
+        bufferedHistoryManager = new BufferedHistoryManager();
+    }
+
+    private static List<Long> ids(HistoryManager historyManager) {
+        return historyManager.getHistory().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void add_shouldKeepViewOrderOfOneThread() {
+        // prepare
+        Task task = new Task(1L, "Приготовить завтрак", "Сварить макароны и пожарить котлету", TaskStatus.NEW);
+        Epic epic = new Epic(2L, "Испечь торт", "Испечь торт Наполеон");
+        SubTask subTask = new SubTask(3L, 2L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                null, null);
+
+        // do
+        bufferedHistoryManager.add(task);
+        bufferedHistoryManager.add(epic);
+        bufferedHistoryManager.add(null);
+        bufferedHistoryManager.add(subTask);
+        bufferedHistoryManager.add(subTask);
+        bufferedHistoryManager.add(epic);
+        bufferedHistoryManager.add(task);
+
+        //check
+        assertEquals(List.of(3L, 2L, 1L), ids(bufferedHistoryManager));
+    }
+
+    @Test
+    void remove_shouldApplyBufferedViewsFirst() {
+        // prepare
+        bufferedHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        bufferedHistoryManager.add(new Task(2L, "Задача 2", "Описание"));
+
+        // do
+        bufferedHistoryManager.remove(1L);
+
+        //check
+        assertEquals(List.of(2L), ids(bufferedHistoryManager));
+    }
+
+    @Test
+    void add_shouldDrainFullBufferWithoutLosingViewsOfOneThread() {
+        // prepare
+        int views = BufferedHistoryManager.BUFFER_SIZE * 10;
+
+        // do
+        for (long id = 0; id < views; id++) {
+            bufferedHistoryManager.add(new Task(id, "Задача " + id, "Описание"));
+        }
+
+        //check
+        assertEquals(0, bufferedHistoryManager.getDroppedViews());
+        assertEquals(views, bufferedHistoryManager.getHistory().size());
+        assertEquals(views - 1L, ids(bufferedHistoryManager).get(views - 1));
+    }
+
+    @Test
+    void shouldCountDroppedViewsUnderConcurrentAdds() throws Exception {
+        // prepare
+        int threads = 8;
+        int viewsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // do
+        for (int t = 0; t < threads; t++) {
+            final long firstId = (long) t * viewsPerThread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long id = firstId; id < firstId + viewsPerThread; id++) {
+                    bufferedHistoryManager.add(new Task(id, "Задача " + id, "Описание"));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //check
+        List<Long> history = ids(bufferedHistoryManager);
+        assertEquals(history.size(), new HashSet<>(history).size());
+        assertEquals((long) threads * viewsPerThread, history.size() + bufferedHistoryManager.getDroppedViews());
+    }
+
+    @Test
+    void add_shouldNotDropViewsWhenBuffersHaveRoom() throws Exception {
+        // prepare
+        int threads = 4;
+        int viewsPerThread = BufferedHistoryManager.BUFFER_SIZE / threads / 2;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // do
+        for (int round = 0; round < 200; round++) {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int t = 0; t < threads; t++) {
+                final long firstId = ((long) round * threads + t) * viewsPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long id = firstId; id < firstId + viewsPerThread; id++) {
+                        bufferedHistoryManager.add(new Task(id, "Задача " + id, "Описание"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            futures.clear();
+            bufferedHistoryManager.getHistory();
+        }
+        executor.shutdown();
+
+        //check
+        assertEquals(0, bufferedHistoryManager.getDroppedViews());
+        assertEquals(200 * threads * viewsPerThread, ids(bufferedHistoryManager).size());
+    }
+}
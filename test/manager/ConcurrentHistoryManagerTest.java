@@ -0,0 +1,138 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    ConcurrentHistoryManager concurrentHistoryManager;
+
+    @BeforeEach
+    void beforeEachTest() {
+        concurrentHistoryManager = new ConcurrentHistoryManager();
+    }
+
+    private static List<Long> ids(HistoryManager historyManager) {
+        return historyManager.getHistory().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void add_shouldKeepLastViewOrder() {
+        // prepare
+        Task task = new Task(1L, "Приготовить завтрак", "Сварить макароны и пожарить котлету", TaskStatus.NEW);
+        Epic epic = new Epic(2L, "Испечь торт", "Испечь торт Наполеон");
+        SubTask subTask = new SubTask(3L, 2L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                null, null);
+
+        // do
+        concurrentHistoryManager.add(task);
+        concurrentHistoryManager.add(epic);
+        concurrentHistoryManager.add(null);
+        concurrentHistoryManager.add(subTask);
+        concurrentHistoryManager.add(subTask);
+        concurrentHistoryManager.add(epic);
+        concurrentHistoryManager.add(task);
+        concurrentHistoryManager.remove(2L);
+
+        //check
+        assertEquals(List.of(3L, 1L), ids(concurrentHistoryManager));
+    }
+
+    @Test
+    void add_shouldEvictEarliestViewWhenCapacityReached() {
+        // prepare
+        concurrentHistoryManager = new ConcurrentHistoryManager(2);
+
+        // do
+        concurrentHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        concurrentHistoryManager.add(new Task(2L, "Задача 2", "Описание"));
+        concurrentHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        concurrentHistoryManager.add(new Task(3L, "Задача 3", "Описание"));
+
+        //check
+        assertEquals(List.of(1L, 3L), ids(concurrentHistoryManager));
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentViewsAndReads() throws Exception {
+        // prepare
+        int writers = 8;
+        int taskCount = 500;
+        Task[] tasks = new Task[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task((long) i, "Задача " + i, "Описание", TaskStatus.NEW);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // do
+        for (int w = 0; w < writers; w++) {
+            final int seed = w;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < 100_000; i++) {
+                    Task task = tasks[random.nextInt(taskCount)];
+                    if (random.nextInt(10) == 0) {
+                        concurrentHistoryManager.remove(task.getId());
+                    } else {
+                        concurrentHistoryManager.add(task);
+                    }
+                }
+                return null;
+            }));
+        }
+        List<String> readerErrors = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    List<Long> history = ids(concurrentHistoryManager);
+                    if (new HashSet<>(history).size() != history.size()) {
+                        synchronized (readerErrors) {
+                            readerErrors.add("Повтор задачи в истории: " + history);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures.subList(0, writers)) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //check
+        assertEquals(List.of(), readerErrors);
+        List<Long> history = ids(concurrentHistoryManager);
+        Set<Long> unique = new HashSet<>(history);
+        assertEquals(unique.size(), history.size());
+        assertEquals(concurrentHistoryManager.size(), history.size());
+        concurrentHistoryManager.add(tasks[0]);
+        assertEquals(0L, ids(concurrentHistoryManager).get(concurrentHistoryManager.size() - 1));
+    }
+}
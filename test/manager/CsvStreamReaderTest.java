@@ -0,0 +1,132 @@
+package manager;
+
+import enums.TaskStatus;
+import exception.ManagerSaveException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvStreamReaderTest {
+    private static final String CSV_HEADER = "id,type,name,status,description,epic";
+
+    private File file;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        file = File.createTempFile("test", ".csv");
+        file.deleteOnExit();
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void afterEachTest() {
+        pool.shutdown();
+    }
+
+    private List<Task> read(String content, int chunkSize) throws IOException {
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return new CsvStreamReader(file, CSV_HEADER, chunkSize, pool).read();
+    }
+
+    @Test
+    void read_shouldSplitLinesAcrossChunksAndOrderById() throws IOException {
+        // prepare
+        StringBuilder content = new StringBuilder(CSV_HEADER + "\n");
+        for (long id = 200; id >= 1; id--) {
+            content.append(id).append(",TASK,Задача ").append(id).append(",NEW,Описание задачи,,null,null,0\n");
+        }
+
+        // do
+        List<Task> tasks = read(content.toString(), 64);
+
+        //check
+        assertEquals(200, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(i + 1, tasks.get(i).getId());
+            assertEquals("Задача " + (i + 1), tasks.get(i).getName());
+        }
+    }
+
+    @Test
+    void read_shouldAcceptCrLfAndMissingTrailingNewLine() throws IOException {
+        // do
+        List<Task> tasks = read(CSV_HEADER + "\r\n"
+                + "1,EPIC,Испечь торт,NEW,Испечь торт Наполеон,,null,null,0\r\n"
+                + "2,SUBTASK,Найти рецепт,DONE,Видео рецепт,1,2024-11-21T19:00,2024-11-21T20:00,60", 16);
+
+        //check
+        assertEquals(2, tasks.size());
+        assertInstanceOf(Epic.class, tasks.get(0));
+        assertEquals("Испечь торт Наполеон", tasks.get(0).getDescription());
+        assertEquals(1, ((SubTask) tasks.get(1)).getEpicId());
+        assertEquals(60, tasks.get(1).getDuration().toMinutes());
+    }
+
+    @Test
+    void read_shouldKeepNewLinesInsideQuotedFields() throws IOException {
+        // prepare
+        StringBuilder content = new StringBuilder(CSV_HEADER + "\n");
+        for (long id = 1; id <= 30; id++) {
+            content.append(id).append(",TASK,\"Задача, ").append(id).append("\",NEW,\"Первая строка\nвторая\",,null,null,0\n");
+        }
+
+        // do
+        List<Task> tasks = read(content.toString(), 32);
+
+        //check
+        assertEquals(30, tasks.size());
+        assertEquals("Задача, 30", tasks.get(29).getName());
+        assertEquals("Первая строка\nвторая", tasks.get(29).getDescription());
+    }
+
+    @Test
+    void read_shouldReportLineNumberOfMalformedRow() throws IOException {
+        // prepare
+        StringBuilder content = new StringBuilder(CSV_HEADER + "\n");
+        for (long id = 1; id <= 50; id++) {
+            content.append(id).append(id == 37 ? ",TASK123" : ",TASK").append(",Задача,NEW,Описание,,null,null,0\n");
+        }
+
+        // do
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> read(content.toString(), 128));
+
+        //check
+        assertTrue(exception.getMessage().endsWith("строки № 37"), exception.getMessage());
+    }
+
+    @Test
+    void read_shouldValidateTrailerAcrossChunks() throws IOException {
+        // prepare
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory());
+        for (int i = 0; i < 20; i++) {
+            manager.create(new Task("Задача " + i, "Описание, с запятой", TaskStatus.NEW));
+        }
+        String content = new String(FileBackedTaskManager.encodeCsv(manager.snapshot()), StandardCharsets.UTF_8);
+
+        // do
+        List<Task> tasks = read(content, 16);
+
+        //check
+        assertEquals(20, tasks.size());
+        assertThrows(ManagerSaveException.class, () -> read(content.replace("#count=20", "#count=21"), 16));
+    }
+
+    @Test
+    void read_shouldRejectWrongHeader() {
+        assertThrows(ManagerSaveException.class, () -> read(CSV_HEADER + ",wrongcolumn", 8));
+    }
+}
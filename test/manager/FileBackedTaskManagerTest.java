@@ -1,8 +1,11 @@
 package manager;
 
+import enums.Durability;
+import enums.SnapshotFormat;
 import enums.TaskStatus;
 import exception.ManagerSaveException;
 import models.Epic;
+import models.SnapshotStats;
 import models.SubTask;
 import models.Task;
 import org.junit.jupiter.api.Assertions;
@@ -11,8 +14,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,8 +86,9 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
     void shouldExceptionWhenSaveWrongPath() {
         assertThrows(ManagerSaveException.class, () -> {
             // prepare
-            file = File.createTempFile("test", ".csv");
-            file.delete();
+            File existing = File.createTempFile("test", ".csv");
+            existing.deleteOnExit();
+            file = new File(existing.getPath() + ".missing", "test.csv");
             taskManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file);
             Task task = new Task("Приготовить завтрак", "Сварить макароны и пожарить котлету",
                     TaskStatus.NEW, LocalDateTime.of(2024, 10, 21, 19, 0),
@@ -93,6 +100,20 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         }, "Проверка указанного файла должна выдать исключение: " + file.getAbsolutePath());
     }
 
+    @Test
+    void shouldSaveToFileThatDoesNotExistYet() {
+        // prepare
+        file.delete();
+        FileBackedTaskManager newFileManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file);
+
+        // do
+        final Long savedTaskId = newFileManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+
+        //check
+        assertEquals("Сварить кашу", FileBackedTaskManager.loadFromFile(file).getTask(savedTaskId).getDescription());
+    }
+
     @Test
     void shouldNotExceptionIfDoesNotHaveData() {
         // do
@@ -163,4 +184,414 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(taskManager.getSubTasks().size(), testManager.getSubTasks().size());
         assertEquals(taskManager.getSubTasks().get(0), testManager.getSubTasks().get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadFromFile_shouldRestoreLinksAndIdCounterWithoutRewritingFile() throws IOException {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+        file.setLastModified(0);
+
+        // do
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        //check
+        assertEquals(0, file.lastModified());
+        assertNull(testManager.getTask(savedTaskId).getStartTime());
+        assertEquals(List.of(savedSubTaskId), testManager.getEpic(savedEpicId).getSubTaskIds());
+        assertEquals(TaskStatus.DONE, testManager.getEpic(savedEpicId).getStatus());
+        assertEquals(1, testManager.getPrioritizedTasks(LocalDateTime.of(2024, 11, 21, 19, 0), null).stream()
+                .filter(task -> task.getId().equals(savedSubTaskId)).count());
+        assertEquals(savedSubTaskId + 1, testManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW)));
+    }
+
+    @Test
+    void partitionedHistory_shouldNotBeSavedOrRestored() {
+        // prepare
+        PartitionedHistoryManager historyManager = new PartitionedHistoryManager();
+        FileBackedTaskManager partitionedManager = new FileBackedTaskManager(historyManager, file);
+        final Long savedTaskId = partitionedManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        PartitionedHistoryManager.Scope scope = historyManager.asUser("anna");
+        try {
+            partitionedManager.getTask(savedTaskId);
+        } finally {
+            scope.close();
+        }
+
+        // do
+        partitionedManager.flush();
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+        partitionedManager.restoreHistory(List.of(savedTaskId));
+
+        //check
+        assertEquals(List.of(), testManager.getHistory());
+        assertEquals(List.of(), partitionedManager.getHistory());
+        assertEquals(List.of(savedTaskId), partitionedManager.getHistory("anna").stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void writeBehind_shouldCoalesceChangesUntilFlush() {
+        // prepare
+        FileBackedTaskManager writeBehindManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                0, 0, Durability.NONE);
+        for (int i = 0; i < 100; i++) {
+            writeBehindManager.create(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+
+        // do
+        final long lengthBeforeFlush = file.length();
+        writeBehindManager.flush();
+
+        //check
+        assertEquals(0, lengthBeforeFlush);
+        assertEquals(100, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+        writeBehindManager.close();
+    }
+
+    @Test
+    void writeBehind_shouldFlushAfterOpsThresholdAndOnClose() throws InterruptedException {
+        // prepare
+        FileBackedTaskManager writeBehindManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                0, 2, Durability.BATCH);
+        writeBehindManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        writeBehindManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW));
+
+        // do
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writeBehindManager.create(new Task("Приготовить ужин", "Пожарить котлету", TaskStatus.NEW));
+        writeBehindManager.close();
+
+        //check
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+    }
+
+    @Test
+    void writeBehind_shouldFlushPeriodically() throws InterruptedException {
+        // prepare
+        FileBackedTaskManager writeBehindManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                20, 0, Durability.NONE);
+
+        // do
+        writeBehindManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        //check
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+        writeBehindManager.close();
+    }
+
+    @Test
+    void durabilityOp_shouldWriteEveryOperationImmediately() {
+        // prepare
+        FileBackedTaskManager syncManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                1_000, 100, Durability.OP);
+
+        // do
+        final Long savedTaskId = syncManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+
+        //check
+        assertNotNull(FileBackedTaskManager.loadFromFile(file).getTask(savedTaskId));
+        syncManager.close();
+    }
+
+    @Test
+    void binarySnapshot_shouldSaveAndLoadAllFields() {
+        // prepare
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.BINARY);
+        final Long savedTaskId = binaryManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.IN_PROGRESS, LocalDateTime.of(2024, 10, 21, 19, 0, 30), Duration.ofMinutes(45)));
+        final Long untimedTaskId = binaryManager.create(new Task("Приготовить обед", null, TaskStatus.NEW));
+        final Long savedEpicId = binaryManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long emptyEpicId = binaryManager.create(new Epic("Уборка", ""));
+        final Long savedSubTaskId = binaryManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+
+        // do
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        //check
+        Task task = testManager.getTask(savedTaskId);
+        assertEquals("Приготовить завтрак", task.getName());
+        assertEquals("Сварить кашу", task.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+        assertEquals(LocalDateTime.of(2024, 10, 21, 19, 0, 30), task.getStartTime());
+        assertEquals(Duration.ofMinutes(45), task.getDuration());
+        assertNull(testManager.getTask(untimedTaskId).getDescription());
+        assertNull(testManager.getTask(untimedTaskId).getStartTime());
+        Epic epic = testManager.getEpic(savedEpicId);
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(LocalDateTime.of(2024, 11, 21, 20, 0), epic.getEndTime());
+        assertEquals(List.of(savedSubTaskId), epic.getSubTaskIds());
+        assertEquals("", testManager.getEpic(emptyEpicId).getDescription());
+        assertEquals(savedEpicId, testManager.getSubTask(savedSubTaskId).getEpicId());
+        assertTrue(testManager.getPrioritizedTasks(true).containsAll(binaryManager.getPrioritizedTasks(true)));
+    }
+
+    @Test
+    void binarySnapshot_shouldKeepDescriptionsReadableAfterRewrite() {
+        // prepare
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.BINARY);
+        final Long savedTaskId = binaryManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        // do
+        for (int i = 0; i < 10; i++) {
+            testManager.create(new Task("Задача " + i, "Длинное описание задачи номер " + i, TaskStatus.NEW));
+        }
+
+        //check
+        assertEquals("Сварить кашу", testManager.getTask(savedTaskId).getDescription());
+        assertEquals(11, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+    }
+
+    @Test
+    void exportTo_shouldConvertCsvToBinary() throws IOException {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        File binaryFile = File.createTempFile("test", ".bin");
+        binaryFile.deleteOnExit();
+
+        // do
+        FileBackedTaskManager.loadFromFile(file).exportTo(binaryFile, SnapshotFormat.BINARY);
+
+        //check
+        assertEquals("Сварить кашу", FileBackedTaskManager.loadFromFile(binaryFile).getTask(savedTaskId)
+                .getDescription());
+    }
+
+    @Test
+    void shouldSaveAndLoadFieldsWithSeparatorsAndNewLines() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Купить хлеб, молоко", "Марка \"Домик\"\nв деревне",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт \"Наполеон\""));
+
+        // do
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        //check
+        assertEquals("Купить хлеб, молоко", testManager.getTask(savedTaskId).getName());
+        assertEquals("Марка \"Домик\"\nв деревне", testManager.getTask(savedTaskId).getDescription());
+        assertEquals("Испечь торт \"Наполеон\"", testManager.getEpic(savedEpicId).getDescription());
+    }
+
+    @Test
+    void save_shouldWriteTrailerWithCountAndChecksumAtomically() throws IOException {
+        // prepare
+        taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+
+        // do
+        taskManager.create(new SubTask(savedEpicId, "Найти рецепт", "Выполнить поиск видео рецепта",
+                TaskStatus.NEW));
+
+        //check
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.get(lines.size() - 1).matches("#count=3;crc32c=[0-9a-f]{8};history="), lines.toString());
+        assertArrayEquals(new String[0], file.getAbsoluteFile().getParentFile()
+                .list((dir, name) -> name.startsWith(file.getName() + ".") && name.endsWith(".tmp")));
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getSubTasks().size());
+    }
+
+    @Test
+    void loadFromFile_shouldRejectCorruptedRow() throws IOException {
+        // prepare
+        taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(file.toPath(), content.replace("кашу", "суп!"), StandardCharsets.UTF_8);
+
+        // do
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file));
+
+        //check
+        assertTrue(exception.getMessage().contains("Контрольная сумма"), exception.getMessage());
+    }
+
+    @Test
+    void loadFromFile_shouldRejectMissingRows() throws IOException {
+        // prepare
+        taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        taskManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW));
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        lines.remove(2);
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        // do
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file));
+
+        //check
+        assertTrue(exception.getMessage().contains("Ожидалось записей: 2, прочитано: 1"), exception.getMessage());
+    }
+
+    @Test
+    void loadFromFile_shouldRejectCorruptedBinarySnapshot() throws IOException {
+        // prepare
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.BINARY);
+        binaryManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        byte[] content = Files.readAllBytes(file.toPath());
+        content[content.length - 1] ^= 1;
+        Files.write(file.toPath(), content);
+
+        // do
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(file));
+    }
+
+    @Test
+    void loadFromFile_shouldRejectUnknownBinarySnapshotVersion() throws IOException {
+        // prepare
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.BINARY);
+        binaryManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        byte[] content = Files.readAllBytes(file.toPath());
+        content[7] = 2;
+        Files.write(file.toPath(), content);
+
+        // do
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(file));
+
+        //check
+        assertTrue(exception.getMessage().startsWith("Неподдерживаемая версия двоичного снимка 2"),
+                exception.getMessage());
+    }
+
+    @Test
+    void gzipSnapshot_shouldSaveAndLoadWithDetectedFormat() throws IOException {
+        // prepare
+        FileBackedTaskManager gzipManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.CSV_GZIP, 9);
+        final Long savedEpicId = gzipManager.create(new Epic("Испечь торт", "Испечь торт Наполеон".repeat(100)));
+        final Long savedSubTaskId = gzipManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+
+        // do
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+        testManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+
+        //check
+        byte[] content = Files.readAllBytes(file.toPath());
+        assertEquals((byte) 0x1f, content[0]);
+        assertEquals((byte) 0x8b, content[1]);
+        assertTrue(content.length < 1000);
+        assertEquals("Испечь торт Наполеон".repeat(100), testManager.getEpic(savedEpicId).getDescription());
+        assertEquals(List.of(savedSubTaskId), testManager.getEpic(savedEpicId).getSubTaskIds());
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file).getTasks().size()
+                + FileBackedTaskManager.loadFromFile(file).getEpics().size()
+                + FileBackedTaskManager.loadFromFile(file).getSubTasks().size());
+    }
+
+    @Test
+    void gzipSnapshot_shouldRejectInvalidCompressionLevel() {
+        assertThrows(IllegalArgumentException.class, () -> new FileBackedTaskManager(Managers.getDefaultHistory(),
+                file, SnapshotFormat.CSV_GZIP, 10));
+    }
+
+    @Test
+    void shouldSaveAndRestoreHistoryInViewOrder() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.NEW));
+        taskManager.getSubTask(savedSubTaskId);
+        taskManager.getTask(savedTaskId);
+        taskManager.getEpic(savedEpicId);
+        taskManager.getSubTask(savedSubTaskId);
+
+        // do
+        taskManager.close();
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        //check
+        assertEquals(List.of(savedTaskId, savedEpicId, savedSubTaskId),
+                testManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void binarySnapshot_shouldSaveAndRestoreHistory() {
+        // prepare
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(Managers.getDefaultHistory(), file,
+                SnapshotFormat.BINARY);
+        final Long firstTaskId = binaryManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long secondTaskId = binaryManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW));
+        final Long removedTaskId = binaryManager.create(new Task("Приготовить ужин", "Пожарить котлету",
+                TaskStatus.NEW));
+        for (long i = 0; i < 200; i++) {
+            binaryManager.getTask(secondTaskId);
+        }
+        binaryManager.getTask(removedTaskId);
+        binaryManager.getTask(firstTaskId);
+        binaryManager.removeTask(removedTaskId);
+
+        // do
+        FileBackedTaskManager testManager = FileBackedTaskManager.loadFromFile(file);
+
+        //check
+        assertEquals(List.of(secondTaskId, firstTaskId), testManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void snapshotAsync_shouldWriteStateAtCallTimeWhileChangesContinue() throws IOException {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        SubTask subTask = new SubTask(savedEpicId, "Найти рецепт", "Выполнить поиск видео рецепта",
+                TaskStatus.NEW, LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60));
+        final Long savedSubTaskId = taskManager.create(subTask);
+        taskManager.getTask(savedTaskId);
+        File backupFile = File.createTempFile("test", ".bin");
+        backupFile.deleteOnExit();
+
+        // do
+        CompletableFuture<SnapshotStats> snapshot = taskManager.snapshotAsync(backupFile, SnapshotFormat.BINARY);
+        subTask.setStatus(TaskStatus.DONE);
+        taskManager.update(subTask);
+        taskManager.removeTask(savedTaskId);
+        taskManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW));
+        SnapshotStats stats = snapshot.join();
+
+        //check
+        FileBackedTaskManager backup = FileBackedTaskManager.loadFromFile(backupFile);
+        assertEquals(3, stats.getTaskCount());
+        assertEquals(backupFile.length(), stats.getBytesWritten());
+        assertTrue(stats.getDuration().compareTo(stats.getCaptureDuration()) >= 0);
+        assertEquals(List.of(savedTaskId), backup.getHistory().stream().map(Task::getId).toList());
+        assertEquals(List.of(savedTaskId), backup.getTasks().stream().map(Task::getId).toList());
+        assertEquals(TaskStatus.NEW, backup.getSubTask(savedSubTaskId).getStatus());
+        assertEquals(TaskStatus.NEW, backup.getEpic(savedEpicId).getStatus());
+        assertEquals(TaskStatus.DONE, FileBackedTaskManager.loadFromFile(file).getEpic(savedEpicId).getStatus());
+    }
+
+    @Test
+    void snapshotAsync_shouldRejectOwnFile() {
+        // do
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.snapshotAsync(file, SnapshotFormat.CSV));
+    }
+}
@@ -304,4 +304,32 @@ class InMemoryHistoryManagerTest {
         Assertions.assertArrayEquals(List.of(3L).toArray(),
                 epicInHistory.getSubTaskIds().toArray());
     }
-}
\ No newline at end of file
+
+    @Test
+    void add_shouldEvictEarliestViewWhenCapacityReached() {
+        // prepare
+        inMemoryHistoryManager = new InMemoryHistoryManager(2);
+        Task task = new Task(1L, "Приготовить завтрак", "Сварить макароны и пожарить котлету", TaskStatus.NEW);
+        Epic epic = new Epic(2L, "Испечь торт", "Испечь торт Наполеон");
+        SubTask subTask = new SubTask(3L, 2L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                null, null);
+
+        // do
+        inMemoryHistoryManager.add(task);
+        inMemoryHistoryManager.add(epic);
+        inMemoryHistoryManager.add(task);
+        inMemoryHistoryManager.add(subTask);
+
+        //check
+        assertEquals(List.of(1L, 3L), inMemoryHistoryManager.getHistory().stream().map(Task::getId).toList());
+        inMemoryHistoryManager.remove(1L);
+        inMemoryHistoryManager.add(epic);
+        assertEquals(List.of(3L, 2L), inMemoryHistoryManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        // do
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
+}
@@ -1,6 +1,20 @@
 package manager;
 
+import enums.TaskStatus;
+import exception.TaskValidationException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
@@ -9,4 +23,51 @@ public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager
         InMemoryHistoryManager historyManager = new InMemoryHistoryManager();
         taskManager = new InMemoryTaskManager(historyManager);
     }
+
+    @Test
+    void checkIndexes_shouldHoldAfterChurn() {
+        // prepare
+        Random random = new Random(3);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        List<Long> tasksIds = new ArrayList<>();
+
+        // do
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime startTime = random.nextInt(5) == 0 ? null : origin.plusMinutes(random.nextInt(5000));
+            Duration duration = startTime == null ? null : Duration.ofMinutes(random.nextInt(60));
+            try {
+                switch (random.nextInt(5)) {
+                    case 0 -> tasksIds.add(taskManager.create(new Task("Задача", "Описание", TaskStatus.NEW,
+                            startTime, duration)));
+                    case 1 -> tasksIds.add(taskManager.create(new SubTask(savedEpicId, "Подзадача", "Описание",
+                            TaskStatus.NEW, startTime, duration)));
+                    case 2 -> {
+                        if (!tasksIds.isEmpty()) {
+                            Long id = tasksIds.get(random.nextInt(tasksIds.size()));
+                            if (taskManager.tasks.containsKey(id)) {
+                                taskManager.update(new Task(id, "Задача", "Описание", TaskStatus.DONE,
+                                        startTime, duration));
+                            } else if (taskManager.subTasks.containsKey(id)) {
+                                taskManager.update(new SubTask(id, savedEpicId, "Подзадача", "Описание",
+                                        TaskStatus.DONE, startTime, duration));
+                            }
+                        }
+                    }
+                    case 3 -> {
+                        if (!tasksIds.isEmpty()) {
+                            Long id = tasksIds.remove(random.nextInt(tasksIds.size()));
+                            taskManager.removeTask(id);
+                            taskManager.removeSubTask(id);
+                        }
+                    }
+                    default -> taskManager.getPrioritizedTasks(true);
+                }
+            } catch (TaskValidationException ignored) {
+            }
+        }
+
+        // check
+        assertDoesNotThrow(() -> taskManager.checkIndexes());
+    }
 }
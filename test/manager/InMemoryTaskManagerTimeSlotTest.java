@@ -0,0 +1,12 @@
+package manager;
+
+import org.junit.jupiter.api.BeforeEach;
+
+public class InMemoryTaskManagerTimeSlotTest extends TaskManagerTest<InMemoryTaskManager> {
+
+    @BeforeEach
+    void init() {
+        InMemoryHistoryManager historyManager = new InMemoryHistoryManager();
+        taskManager = new InMemoryTaskManager(historyManager, new TimeSlotScheduleIndex());
+    }
+}
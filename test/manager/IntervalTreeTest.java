@@ -0,0 +1,102 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+    IntervalTree intervalTree;
+
+    @BeforeEach
+    void beforeEachTest() {
+        intervalTree = new IntervalTree();
+    }
+
+    private static Task task(long id, LocalDateTime startTime, long minutes) {
+        return new Task(id, "Задача " + id, "Описание", TaskStatus.NEW, startTime, Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    void findIntercept_shouldIgnoreAdjacentTerms() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 0);
+        intervalTree.put(task(1L, start, 60));
+
+        // do // check
+        assertNull(intervalTree.findIntercept(start.plusMinutes(60), start.plusMinutes(90), t -> false));
+        assertNull(intervalTree.findIntercept(start.minusMinutes(30), start, t -> false));
+        assertEquals(1L, intervalTree.findIntercept(start.plusMinutes(59), start.plusMinutes(90), t -> false).getId());
+    }
+
+    @Test
+    void findIntercept_shouldSkipExcludedTasks() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 0);
+        intervalTree.put(task(1L, start, 60));
+        intervalTree.put(task(2L, start.plusMinutes(30), 60));
+
+        // do
+        Task intercepted = intervalTree.findIntercept(start, start.plusMinutes(120), t -> t.getId() == 1L);
+
+        // check
+        assertEquals(2L, intercepted.getId());
+    }
+
+    @Test
+    void put_shouldReplaceTaskWithSameId() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 0);
+        intervalTree.put(task(1L, start, 60));
+
+        // do
+        intervalTree.put(task(1L, start.plusDays(1), 60));
+
+        // check
+        assertEquals(1, intervalTree.size());
+        assertNull(intervalTree.findIntercept(start, start.plusMinutes(60), t -> false));
+        assertTrue(intervalTree.remove(1L));
+        assertFalse(intervalTree.contains(1L));
+    }
+
+    @Test
+    void findIntercepts_shouldMatchLinearScan() {
+        // prepare
+        Random random = new Random(42);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Task> all = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Task task = task(id, origin.plusMinutes(random.nextInt(10_000)), random.nextInt(300));
+            all.add(task);
+            intervalTree.put(task);
+        }
+        for (long id = 1; id <= 500; id += 3) {
+            intervalTree.remove(id);
+        }
+
+        // do // check
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = origin.plusMinutes(random.nextInt(10_000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(200));
+            List<Long> expected = all.stream()
+                    .filter(t -> (t.getId() - 1) % 3 != 0)
+                    .filter(t -> t.getStartTime().isBefore(end) && start.isBefore(t.getEndTime()))
+                    .map(Task::getId)
+                    .sorted()
+                    .toList();
+            List<Long> actual = intervalTree.findIntercepts(start, end).stream()
+                    .map(Task::getId)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package manager;
+
+import enums.TaskStatus;
+import exception.TaskValidationException;
+import models.BatchResult;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты запускаются, если драйвер H2 есть в classpath, иначе пропускаются.
+ */
+class JdbcTaskManagerTest extends TaskManagerTest<JdbcTaskManager> {
+
+    private String url;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        File directory = Files.createTempDirectory("kanban").toFile();
+        directory.deleteOnExit();
+        url = "jdbc:h2:file:" + new File(directory, "kanban").getAbsolutePath();
+        Assumptions.assumeTrue(isDriverAvailable(url), "Драйвер H2 не найден");
+        taskManager = new JdbcTaskManager(Managers.getDefaultHistory(), url);
+    }
+
+    private static boolean isDriverAvailable(String url) {
+        try {
+            return DriverManager.getDriver(url) != null;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @AfterEach
+    void afterEachTest() {
+        if (taskManager != null) {
+            taskManager.close();
+        }
+    }
+
+    @Test
+    void shouldKeepTasksAfterReopen() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Купить хлеб, молоко", "Первая строка\nвторая строка",
+                TaskStatus.NEW, LocalDateTime.of(2024, 11, 21, 9, 0), Duration.ofMinutes(30)));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+        taskManager.close();
+
+        // do
+        taskManager = Managers.getJdbc(url);
+
+        //check
+        assertEquals("Первая строка\nвторая строка", taskManager.getTask(savedTaskId).getDescription());
+        Epic epic = taskManager.getEpic(savedEpicId);
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(List.of(savedSubTaskId), epic.getSubTaskIds());
+        assertEquals(LocalDateTime.of(2024, 11, 21, 20, 0), epic.getEndTime());
+        assertEquals(savedSubTaskId + 1, taskManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW)));
+    }
+
+    @Test
+    void createAll_shouldInsertLargeBatchInOneTransaction() {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(new SubTask(savedEpicId, "Найти рецепт " + i, "Выполнить поиск видео рецепта",
+                    i == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.NEW, origin.plusMinutes(30L * i),
+                    Duration.ofMinutes(30)));
+        }
+
+        // do
+        BatchResult result = taskManager.createAll(batch);
+
+        //check
+        assertTrue(result.isCommitted());
+        Epic epic = taskManager.getEpic(savedEpicId);
+        assertEquals(1000, epic.getSubTaskIds().size());
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(origin, epic.getStartTime());
+        assertEquals(origin.plusMinutes(30_000), epic.getEndTime());
+        assertEquals(1000, taskManager.getPrioritizedTasks(true).size());
+        assertEquals(List.of(result.getIds().get(10), result.getIds().get(11)),
+                taskManager.getPrioritizedTasks(origin.plusMinutes(300), origin.plusMinutes(360)).stream()
+                        .map(Task::getId).toList());
+    }
+
+    @Test
+    void create_shouldFindInterceptWithLongTaskAfterReopen() {
+        // prepare
+        final LocalDateTime start = LocalDateTime.of(2024, 11, 1, 9, 0);
+        final Long longTaskId = taskManager.create(new Task("Отпуск", "Уехать на море", TaskStatus.NEW, start,
+                Duration.ofDays(14)));
+        for (int i = 0; i < 10; i++) {
+            taskManager.create(new Task("Звонок " + i, "Созвониться", TaskStatus.NEW,
+                    start.plusDays(20).plusHours(i), Duration.ofMinutes(30)));
+        }
+        taskManager.close();
+        taskManager = new JdbcTaskManager(Managers.getDefaultHistory(), url);
+
+        // do
+        TaskValidationException exception = assertThrows(TaskValidationException.class,
+                () -> taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                        start.plusDays(13), Duration.ofMinutes(30))));
+
+        //check
+        assertTrue(exception.getMessage().contains("id=" + longTaskId), exception.getMessage());
+        assertEquals(start.plusDays(14), taskManager.findFreeSlot(start.plusDays(1), Duration.ofHours(1)));
+    }
+
+    @Test
+    void removeSubTask_shouldRecalculateEpicAndHistory() {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTask1Id = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE));
+        final Long savedSubTask2Id = taskManager.create(new SubTask(savedEpicId, "Купить продукты",
+                "Купить муку и масло", TaskStatus.NEW));
+        taskManager.getSubTask(savedSubTask2Id);
+
+        // do
+        taskManager.removeSubTask(savedSubTask2Id);
+
+        //check
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(savedEpicId).getStatus());
+        assertEquals(List.of(savedSubTask1Id), taskManager.getEpic(savedEpicId).getSubTaskIds());
+        assertEquals(List.of(savedEpicId), taskManager.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void clear_shouldRemoveTasksFromHistoryOfAllUsers() {
+        // prepare
+        PartitionedHistoryManager historyManager = new PartitionedHistoryManager();
+        JdbcTaskManager partitionedManager = new JdbcTaskManager(historyManager, url);
+        final Long savedTaskId = partitionedManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = partitionedManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = partitionedManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE));
+        for (String userId : List.of("anna", "boris")) {
+            PartitionedHistoryManager.Scope scope = historyManager.asUser(userId);
+            try {
+                partitionedManager.getTask(savedTaskId);
+                partitionedManager.getEpic(savedEpicId);
+                partitionedManager.getSubTask(savedSubTaskId);
+            } finally {
+                scope.close();
+            }
+        }
+
+        // do
+        partitionedManager.clearTasks();
+        final List<Long> annaHistoryAfterClearTasks = partitionedManager.getHistory("anna").stream()
+                .map(Task::getId).toList();
+        partitionedManager.clear();
+
+        //check
+        assertEquals(List.of(savedEpicId, savedSubTaskId), annaHistoryAfterClearTasks);
+        assertEquals(List.of(), partitionedManager.getHistory("anna"));
+        assertEquals(List.of(), partitionedManager.getHistory("boris"));
+        partitionedManager.close();
+    }
+}
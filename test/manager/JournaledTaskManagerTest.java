@@ -0,0 +1,188 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTaskManagerTest extends TaskManagerTest<JournaledTaskManager> {
+
+    private File file;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        file = File.createTempFile("test", ".csv");
+        file.delete();
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+        taskManager = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+    }
+
+    @AfterEach
+    void afterEachTest() {
+        taskManager.close();
+    }
+
+    @Test
+    void shouldRecoverFromJournalWithoutSnapshot() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+        taskManager.update(new Task(savedTaskId, "Приготовить легкий завтрак", "Сварить кашу",
+                TaskStatus.IN_PROGRESS));
+        final Long removedTaskId = taskManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW));
+        taskManager.removeTask(removedTaskId);
+        taskManager.close();
+
+        // do
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertEquals("Приготовить легкий завтрак", testManager.getTask(savedTaskId).getName());
+        assertNull(testManager.getTask(removedTaskId));
+        assertEquals(TaskStatus.DONE, testManager.getEpic(savedEpicId).getStatus());
+        assertEquals(List.of(savedSubTaskId), testManager.getEpic(savedEpicId).getSubTaskIds());
+        assertTrue(file.exists(), "После восстановления журнал должен быть свернут в снимок");
+        testManager.close();
+    }
+
+    @Test
+    void shouldReplayJournalTailAfterCompactedSnapshot() throws IOException {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        taskManager.create(new SubTask(savedEpicId, "Найти рецепт", "Выполнить поиск видео рецепта",
+                TaskStatus.NEW));
+        taskManager.compact();
+        taskManager.clearEpics();
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        taskManager.close();
+        Files.writeString(new File(file.getPath() + ".journal").toPath(), "U,3,TASK,Оборванная",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // do
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertTrue(testManager.getEpics().isEmpty());
+        assertTrue(testManager.getSubTasks().isEmpty());
+        assertEquals(List.of(savedTaskId), testManager.getTasks().stream().map(Task::getId).toList());
+        testManager.close();
+    }
+
+    @Test
+    void shouldCompactInBackgroundAfterThreshold() throws IOException {
+        // prepare
+        taskManager.close();
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file, 10);
+
+        // do
+        for (int i = 0; i < 25; i++) {
+            testManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        }
+        testManager.close();
+
+        //check
+        assertTrue(file.exists());
+        assertTrue(Files.readAllLines(new File(file.getPath() + ".journal").toPath()).size() < 10);
+        JournaledTaskManager reloaded = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+        assertEquals(25, reloaded.getTasks().size());
+        reloaded.close();
+        taskManager = reloaded;
+    }
+
+    @Test
+    void shouldReplayRecordsWithNewLinesInsideQuotes() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Купить хлеб, молоко", "Первая строка\nвторая строка",
+                TaskStatus.NEW));
+        taskManager.close();
+
+        // do
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertEquals("Купить хлеб, молоко", testManager.getTask(savedTaskId).getName());
+        assertEquals("Первая строка\nвторая строка", testManager.getTask(savedTaskId).getDescription());
+        testManager.close();
+    }
+
+    @Test
+    void shouldReplayRecordsWithCarriageReturnsInsideQuotes() {
+        // prepare
+        final Long savedTask1Id = taskManager.create(new Task("Купить хлеб", "a\r\nb", TaskStatus.NEW));
+        final Long savedTask2Id = taskManager.create(new Task("Купить молоко", "a\rb", TaskStatus.NEW));
+        taskManager.close();
+
+        // do
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertEquals("a\r\nb", testManager.getTask(savedTask1Id).getDescription());
+        assertEquals("a\rb", testManager.getTask(savedTask2Id).getDescription());
+        testManager.close();
+    }
+
+    @Test
+    void compact_shouldNotLoseChangesWhenCompactionsOverlap() throws Exception {
+        // prepare
+        taskManager.close();
+        JournaledTaskManager testManager = new JournaledTaskManager(Managers.getDefaultHistory(), file, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> compactions = new ArrayList<>();
+
+        // do
+        for (int t = 0; t < 2; t++) {
+            compactions.add(executor.submit(() -> {
+                while (running.get()) {
+                    testManager.compact();
+                }
+                return null;
+            }));
+        }
+        for (int i = 0; i < 300; i++) {
+            testManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        }
+        running.set(false);
+        for (Future<?> compaction : compactions) {
+            compaction.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        testManager.compact();
+        testManager.close();
+
+        //check
+        JournaledTaskManager reloaded = new JournaledTaskManager(Managers.getDefaultHistory(), file);
+        taskManager = reloaded;
+        assertEquals(300, reloaded.getTasks().size());
+        File directory = file.getAbsoluteFile().getParentFile();
+        assertArrayEquals(new String[0], directory.list((dir, name) -> name.startsWith(file.getName() + ".")
+                && name.endsWith(".tmp")));
+    }
+}
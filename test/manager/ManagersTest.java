@@ -23,4 +23,13 @@ class ManagersTest {
         //check
         assertInstanceOf(InMemoryHistoryManager.class, historyManager);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDefaultHistory_shouldReturnBoundedHistoryManager() {
+        // perform do
+        HistoryManager historyManager = Managers.getDefaultHistory(100);
+
+        //check
+        assertEquals(100, assertInstanceOf(InMemoryHistoryManager.class, historyManager).getCapacity());
+    }
+}
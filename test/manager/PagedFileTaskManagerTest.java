@@ -0,0 +1,114 @@
+package manager;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedFileTaskManagerTest extends TaskManagerTest<PagedFileTaskManager> {
+
+    private File file;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        file = File.createTempFile("test", ".pages");
+        file.delete();
+        file.deleteOnExit();
+        taskManager = new PagedFileTaskManager(Managers.getDefaultHistory(), file);
+    }
+
+    @AfterEach
+    void afterEachTest() {
+        taskManager.close();
+    }
+
+    @Test
+    void shouldLoadTasksAfterReopen() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Купить хлеб, молоко", "Первая строка\nвторая строка",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+        final Long removedTaskId = taskManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW));
+        taskManager.removeTask(removedTaskId);
+        taskManager.close();
+
+        // do
+        taskManager = new PagedFileTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertEquals("Первая строка\nвторая строка", taskManager.getTask(savedTaskId).getDescription());
+        assertNull(taskManager.getTask(removedTaskId));
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(savedEpicId).getStatus());
+        assertEquals(List.of(savedSubTaskId), taskManager.getEpic(savedEpicId).getSubTaskIds());
+        assertEquals(List.of(new PagedTaskStore.RecordKey(TaskType.EPIC, savedEpicId),
+                        new PagedTaskStore.RecordKey(TaskType.SUBTASK, savedSubTaskId)),
+                taskManager.store().findByStartTime(null, null));
+    }
+
+    @Test
+    void create_shouldSaveRecordsOfFailedWriteWithNextWrite() {
+        // prepare
+        AtomicBoolean failed = new AtomicBoolean();
+        Task failedTask = new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW) {
+            @Override
+            public String getDescription() {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("Сбой записи");
+                }
+                return super.getDescription();
+            }
+        };
+        assertThrows(ManagerSaveException.class, () -> taskManager.create(failedTask));
+        final Long failedTaskId = failedTask.getId();
+
+        // do
+        final Long savedTaskId = taskManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW));
+        taskManager.close();
+        taskManager = new PagedFileTaskManager(Managers.getDefaultHistory(), file);
+
+        //check
+        assertTrue(failed.get());
+        assertEquals("Сварить кашу", taskManager.getTask(failedTaskId).getDescription());
+        assertEquals("Сварить суп", taskManager.getTask(savedTaskId).getDescription());
+    }
+
+    @Test
+    void update_shouldNotGrowFileWithBoardSize() {
+        // prepare
+        for (int i = 0; i < 2000; i++) {
+            taskManager.create(new Task("Приготовить завтрак " + i, "Сварить кашу", TaskStatus.NEW));
+        }
+        int pageCount = taskManager.store().pageCount();
+
+        // do
+        for (int i = 0; i < 200; i++) {
+            taskManager.update(new Task(1L + i, "Приготовить легкий завтрак", "Сварить кашу", TaskStatus.DONE));
+        }
+
+        //check
+        assertTrue(taskManager.store().pageCount() <= pageCount + 8,
+                "Страницы прежних версий должны переиспользоваться");
+        taskManager.close();
+        taskManager = new PagedFileTaskManager(Managers.getDefaultHistory(), file);
+        assertEquals(2000, taskManager.getTasks().size());
+        assertEquals(TaskStatus.DONE, taskManager.getTask(200L).getStatus());
+    }
+}
@@ -0,0 +1,174 @@
+package manager;
+
+import enums.TaskStatus;
+import enums.TaskType;
+import exception.ManagerSaveException;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTaskStoreTest {
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private File file;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        file = File.createTempFile("test", ".pages");
+        file.delete();
+        file.deleteOnExit();
+    }
+
+    private static Task task(long id, int minute, String description) {
+        return new Task(id, "Задача " + id, description, TaskStatus.NEW,
+                minute < 0 ? null : ORIGIN.plusMinutes(minute), Duration.ofMinutes(15));
+    }
+
+    @Test
+    void shouldMatchSortedMapAfterRandomChurn() {
+        // prepare
+        Random random = new Random(7);
+        Map<Long, Task> expected = new TreeMap<>();
+
+        // do
+        try (PagedTaskStore store = new PagedTaskStore(file, 16)) {
+            for (int i = 0; i < 5000; i++) {
+                long id = random.nextInt(1500);
+                if (random.nextInt(4) == 0) {
+                    expected.remove(id);
+                    store.write(List.of(), List.of(new PagedTaskStore.RecordKey(TaskType.TASK, id)));
+                } else {
+                    String description = random.nextInt(20) == 0 ? "Описание ".repeat(200 + random.nextInt(800))
+                            : "Описание " + i;
+                    Task task = task(id, random.nextInt(10) == 0 ? -1 : random.nextInt(100_000), description);
+                    expected.put(id, task);
+                    store.write(List.of(task), List.of());
+                }
+            }
+            assertTrue(store.cachedPages() <= 16);
+        }
+
+        //check
+        try (PagedTaskStore store = new PagedTaskStore(file, 16)) {
+            List<Task> stored = new ArrayList<>();
+            store.forEach(stored::add);
+            assertEquals(List.copyOf(expected.keySet()), stored.stream().map(Task::getId).toList());
+            for (Task task : stored) {
+                assertEquals(expected.get(task.getId()).getDescription(), task.getDescription());
+            }
+            List<Long> byStartTime = expected.values().stream()
+                    .filter(task -> task.getStartTime() != null)
+                    .sorted((a, b) -> a.getStartTime().equals(b.getStartTime()) ? a.getId().compareTo(b.getId())
+                            : a.getStartTime().compareTo(b.getStartTime()))
+                    .map(Task::getId)
+                    .toList();
+            assertEquals(byStartTime, store.findByStartTime(null, null).stream()
+                    .map(PagedTaskStore.RecordKey::id).toList());
+            assertEquals(expected.get(expected.keySet().iterator().next()).getName(),
+                    store.get(TaskType.TASK, expected.keySet().iterator().next()).getName());
+        }
+    }
+
+    @Test
+    void shouldReturnRangeByStartTime() {
+        // prepare
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            List<Task> batch = new ArrayList<>();
+            for (long id = 1; id <= 100; id++) {
+                batch.add(task(id, (int) (100 - id) * 30, "Описание"));
+            }
+            store.write(batch, List.of());
+
+            // do
+            List<PagedTaskStore.RecordKey> range = store.findByStartTime(ORIGIN.plusMinutes(60), ORIGIN.plusMinutes(150));
+
+            //check
+            assertEquals(List.of(98L, 97L, 96L), range.stream().map(PagedTaskStore.RecordKey::id).toList());
+        }
+    }
+
+    @Test
+    void write_shouldNotReusePagesOfRolledBackWriteAfterRootCollapse() {
+        // prepare
+        List<Task> batch = new ArrayList<>();
+        List<PagedTaskStore.RecordKey> deletes = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            batch.add(task(id, -1, "Описание " + id));
+            if (id < 300) {
+                deletes.add(new PagedTaskStore.RecordKey(TaskType.TASK, id));
+            }
+        }
+        List<Task> nextBatch = new ArrayList<>();
+        for (long id = 301; id <= 600; id++) {
+            nextBatch.add(task(id, -1, "Описание " + id));
+        }
+
+        // do
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            store.write(batch, List.of());
+            // задача без id прерывает запись после удалений, которые свели дерево к одному листу
+            assertThrows(ManagerSaveException.class, () -> store.write(
+                    List.of(new Task("Задача", "Описание", TaskStatus.NEW)), deletes));
+            store.write(nextBatch, List.of());
+        }
+
+        //check
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            List<Long> stored = new ArrayList<>();
+            store.forEach(task -> stored.add(task.getId()));
+            List<Long> expected = new ArrayList<>();
+            batch.forEach(task -> expected.add(task.getId()));
+            nextBatch.forEach(task -> expected.add(task.getId()));
+            assertEquals(expected, stored);
+        }
+    }
+
+    @Test
+    void shouldFallBackToPreviousGenerationWhenLatestMetaIsTorn() throws IOException {
+        // prepare
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            store.write(List.of(task(1, 0, "Первая версия")), List.of());
+            store.write(List.of(task(1, 0, "Вторая версия")), List.of());
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(16);
+            raf.writeInt(12345);
+        }
+
+        // do
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            //check
+            assertEquals("Первая версия", store.get(TaskType.TASK, 1).getDescription());
+        }
+    }
+
+    @Test
+    void shouldFailWhenBothMetaPagesAreCorrupted() throws IOException {
+        // prepare
+        try (PagedTaskStore store = new PagedTaskStore(file)) {
+            store.write(List.of(task(1, 0, "Описание")), List.of());
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(0);
+            raf.writeInt(0);
+            raf.seek(PagedTaskStore.PAGE_SIZE);
+            raf.writeInt(0);
+        }
+
+        // do //check
+        assertThrows(ManagerSaveException.class, () -> new PagedTaskStore(file));
+    }
+}
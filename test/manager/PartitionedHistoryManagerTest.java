@@ -0,0 +1,132 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedHistoryManagerTest {
+    PartitionedHistoryManager partitionedHistoryManager;
+    TaskManager taskManager;
+
+    @BeforeEach
+    void beforeEachTest() {
+        partitionedHistoryManager = new PartitionedHistoryManager();
+        taskManager = new InMemoryTaskManager(partitionedHistoryManager);
+    }
+
+    private static List<Long> ids(List<Task> history) {
+        return history.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void getHistory_shouldKeepSeparateHistoryPerUser() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+
+        // do
+        PartitionedHistoryManager.Scope annaScope = partitionedHistoryManager.asUser("anna");
+        try {
+            taskManager.getTask(savedTaskId);
+            taskManager.getEpic(savedEpicId);
+            taskManager.getTask(savedTaskId);
+        } finally {
+            annaScope.close();
+        }
+        PartitionedHistoryManager.Scope borisScope = partitionedHistoryManager.asUser("boris");
+        try {
+            taskManager.getEpic(savedEpicId);
+        } finally {
+            borisScope.close();
+        }
+        taskManager.getTask(savedTaskId);
+
+        //check
+        assertEquals(List.of(savedEpicId, savedTaskId), ids(taskManager.getHistory("anna")));
+        assertEquals(List.of(savedEpicId), ids(taskManager.getHistory("boris")));
+        assertEquals(List.of(savedTaskId), ids(taskManager.getHistory()));
+        assertEquals(List.of(), taskManager.getHistory("vera"));
+        assertSame(taskManager.getHistory("anna").get(0), taskManager.getHistory("boris").get(0));
+    }
+
+    @Test
+    void remove_shouldPurgeTaskFromAllUsers() {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.NEW));
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        for (String userId : List.of("anna", "boris")) {
+            PartitionedHistoryManager.Scope userScope = partitionedHistoryManager.asUser(userId);
+            try {
+                taskManager.getSubTask(savedSubTaskId);
+                taskManager.getTask(savedTaskId);
+            } finally {
+                userScope.close();
+            }
+        }
+
+        // do
+        taskManager.removeEpic(savedEpicId);
+
+        //check
+        assertEquals(List.of(savedTaskId), ids(taskManager.getHistory("anna")));
+        assertEquals(List.of(savedTaskId), ids(taskManager.getHistory("boris")));
+    }
+
+    @Test
+    void add_shouldEvictEarliestViewWhenPartitionFull() {
+        // prepare
+        partitionedHistoryManager = new PartitionedHistoryManager(2, Duration.ofMinutes(1));
+
+        // do
+        PartitionedHistoryManager.Scope annaScope = partitionedHistoryManager.asUser("anna");
+        try {
+            partitionedHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+            partitionedHistoryManager.add(new Task(2L, "Задача 2", "Описание"));
+            partitionedHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+            partitionedHistoryManager.add(new Task(3L, "Задача 3", "Описание"));
+        } finally {
+            annaScope.close();
+        }
+
+        //check
+        assertEquals(List.of(1L, 3L), ids(partitionedHistoryManager.getHistory("anna")));
+    }
+
+    @Test
+    void shouldEvictIdlePartitions() throws InterruptedException {
+        // prepare
+        partitionedHistoryManager = new PartitionedHistoryManager(10, Duration.ofMillis(20));
+        PartitionedHistoryManager.Scope annaScope = partitionedHistoryManager.asUser("anna");
+        try {
+            partitionedHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        } finally {
+            annaScope.close();
+        }
+
+        // do
+        Thread.sleep(50);
+        PartitionedHistoryManager.Scope borisScope = partitionedHistoryManager.asUser("boris");
+        try {
+            partitionedHistoryManager.add(new Task(1L, "Задача 1", "Описание"));
+        } finally {
+            borisScope.close();
+        }
+
+        //check
+        assertEquals(1, partitionedHistoryManager.partitionCount());
+        assertEquals(List.of(), partitionedHistoryManager.getHistory("anna"));
+        assertEquals(List.of(1L), ids(partitionedHistoryManager.getHistory("boris")));
+    }
+}
@@ -0,0 +1,105 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedFileTaskManagerTest extends TaskManagerTest<SegmentedFileTaskManager> {
+
+    private File directory;
+
+    @BeforeEach
+    void beforeEachTest() throws IOException {
+        directory = Files.createTempDirectory("segments").toFile();
+        taskManager = new SegmentedFileTaskManager(Managers.getDefaultHistory(), directory, 4);
+    }
+
+    @AfterEach
+    void afterEachTest() throws IOException {
+        try (Stream<java.nio.file.Path> files = Files.walk(directory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void shouldSaveAndLoadFromSegments() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу",
+                TaskStatus.NEW));
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        final Long savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Найти рецепт",
+                "Выполнить поиск видео рецепта", TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0), Duration.ofMinutes(60)));
+
+        // do
+        SegmentedFileTaskManager testManager = new SegmentedFileTaskManager(Managers.getDefaultHistory(),
+                directory, 4);
+
+        //check
+        assertEquals(Set.of("task-0.csv", "epic-0.csv", "subtask-0.csv"), testManager.segmentFiles());
+        assertEquals("Сварить кашу", testManager.getTask(savedTaskId).getDescription());
+        assertEquals(TaskStatus.DONE, testManager.getEpic(savedEpicId).getStatus());
+        assertEquals(List.of(savedSubTaskId), testManager.getEpic(savedEpicId).getSubTaskIds());
+        assertEquals(savedSubTaskId + 1, testManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW)));
+    }
+
+    @Test
+    void shouldRewriteOnlyDirtySegments() {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        Long savedSubTaskId = null;
+        for (int i = 0; i < 10; i++) {
+            savedSubTaskId = taskManager.create(new SubTask(savedEpicId, "Подзадача " + i, "Описание",
+                    TaskStatus.NEW));
+        }
+        for (int i = 0; i < 10; i++) {
+            taskManager.create(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+        for (String name : taskManager.segmentFiles()) {
+            new File(directory, name).setLastModified(0);
+        }
+
+        // do
+        taskManager.update(new SubTask(savedSubTaskId, savedEpicId, "Подзадача 9", "Описание",
+                TaskStatus.DONE, null, null));
+
+        //check
+        String touchedSegment = "subtask-" + savedSubTaskId / 4 + ".csv";
+        for (String name : taskManager.segmentFiles()) {
+            boolean rewritten = new File(directory, name).lastModified() != 0;
+            assertEquals(name.equals(touchedSegment) || name.equals("epic-0.csv"), rewritten, name);
+        }
+    }
+
+    @Test
+    void shouldDeleteEmptySegments() {
+        // prepare
+        final Long savedEpicId = taskManager.create(new Epic("Испечь торт", "Испечь торт Наполеон"));
+        taskManager.create(new SubTask(savedEpicId, "Найти рецепт", "Выполнить поиск видео рецепта",
+                TaskStatus.NEW));
+        taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+
+        // do
+        taskManager.removeEpic(savedEpicId);
+
+        //check
+        assertEquals(Set.of("task-0.csv"), taskManager.segmentFiles());
+    }
+}
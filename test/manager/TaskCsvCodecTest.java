@@ -0,0 +1,99 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Epic;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCsvCodecTest {
+
+    @Test
+    void encode_shouldQuoteFieldsWithSeparatorsQuotesAndNewLines() {
+        // prepare
+        Task task = new Task(1L, "Купить хлеб, молоко", "Марка \"Домик\"\nв деревне", TaskStatus.NEW,
+                LocalDateTime.of(2024, 10, 21, 19, 0), Duration.ofMinutes(60));
+
+        // do
+        String row = new TaskCsvCodec().encode(task).toString();
+
+        //check
+        assertEquals("1,TASK,\"Купить хлеб, молоко\",NEW,\"Марка \"\"Домик\"\"\nв деревне\",,"
+                + "2024-10-21T19:00,2024-10-21T20:00,60", row);
+    }
+
+    @Test
+    void decode_shouldRoundTripAllTypesAndValues() {
+        // prepare
+        TaskCsvCodec codec = new TaskCsvCodec();
+        Task task = new Task(1L, "Купить хлеб, молоко", "\"", TaskStatus.IN_PROGRESS,
+                LocalDateTime.of(2024, 10, 21, 19, 0, 5, 120_000_000), Duration.ofMinutes(45));
+        Epic epic = new Epic(2L, "Испечь торт", "", null, null, null, Duration.ZERO);
+        SubTask subTask = new SubTask(3L, 2L, "Найти рецепт", null, TaskStatus.DONE,
+                LocalDateTime.of(2024, 11, 21, 19, 0, 0, 1), Duration.ofMinutes(60));
+
+        // do
+        Task decodedTask = TaskCsvCodec.decode(codec.encode(task).toString());
+        Epic decodedEpic = (Epic) TaskCsvCodec.decode(codec.encode(epic).toString());
+        SubTask decodedSubTask = (SubTask) TaskCsvCodec.decode(codec.encode(subTask).toString());
+
+        //check
+        assertEquals("Купить хлеб, молоко", decodedTask.getName());
+        assertEquals("\"", decodedTask.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, decodedTask.getStatus());
+        assertEquals(task.getStartTime(), decodedTask.getStartTime());
+        assertEquals(Duration.ofMinutes(45), decodedTask.getDuration());
+        assertEquals("", decodedEpic.getDescription());
+        assertNull(decodedEpic.getStatus());
+        assertNull(decodedEpic.getStartTime());
+        assertEquals(2L, decodedSubTask.getEpicId());
+        assertNull(decodedSubTask.getDescription());
+        assertEquals(subTask.getStartTime(), decodedSubTask.getStartTime());
+    }
+
+    @Test
+    void decode_shouldDistinguishNullFromNullText() {
+        // prepare
+        TaskCsvCodec codec = new TaskCsvCodec();
+        Task missing = new Task(1L, null, null, TaskStatus.NEW);
+        Task text = new Task(2L, "null", "null", TaskStatus.NEW);
+
+        // do
+        String missingRow = codec.encode(missing).toString();
+        Task decodedMissing = TaskCsvCodec.decode(missingRow);
+        String textRow = codec.encode(text).toString();
+        Task decodedText = TaskCsvCodec.decode(textRow);
+
+        //check
+        assertEquals("1,TASK,null,NEW,null,,null,null,0", missingRow);
+        assertNull(decodedMissing.getName());
+        assertNull(decodedMissing.getDescription());
+        assertEquals("2,TASK,\"null\",NEW,\"null\",,null,null,0", textRow);
+        assertEquals("null", decodedText.getName());
+        assertEquals("null", decodedText.getDescription());
+    }
+
+    @Test
+    void decode_shouldReadRowsOfPreviousFormat() {
+        // do
+        Task task = TaskCsvCodec.decode("7,SUBTASK,Найти рецепт,NEW,Поиск видео,3,2024-11-21T19:00:30,"
+                + "2024-11-21T20:00:30,60");
+
+        //check
+        assertEquals(7L, task.getId());
+        assertEquals(3L, ((SubTask) task).getEpicId());
+        assertEquals(LocalDateTime.of(2024, 11, 21, 19, 0, 30), task.getStartTime());
+    }
+
+    @Test
+    void decode_shouldRejectMalformedRows() {
+        assertThrows(IllegalArgumentException.class, () -> TaskCsvCodec.decode("1,TASK123,Задача,NEW,Описание,,null,null,0"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCsvCodec.decode("1,TASK,\"Задача,NEW,Описание,,null,null,0"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCsvCodec.decode("1,TASK,Задача,NEW,Описание,,null,null"));
+    }
+}
@@ -2,9 +2,11 @@ package manager;
 
 import enums.TaskStatus;
 import exception.TaskValidationException;
+import models.BatchResult;
 import models.Epic;
 import models.SubTask;
 import models.Task;
+import models.TaskPage;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -592,6 +594,52 @@ abstract class TaskManagerTest<T extends TaskManager> {
         }
     }
 
+    @Test
+    void getPrioritizedTasks_shouldReturnTasksInStartTimeRange() {
+        // prepare
+        List<Long> tasksIds = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            tasksIds.add(taskManager.create(new Task("Приготовить завтрак", "Сварить макароны и пожарить котлету",
+                    TaskStatus.NEW, LocalDateTime.of(2000 + i, 1, 1, 1, 1), Duration.ofMinutes(15))));
+        }
+
+        //do
+        List<Task> range = taskManager.getPrioritizedTasks(LocalDateTime.of(2003, 1, 1, 1, 1),
+                LocalDateTime.of(2006, 1, 1, 1, 1));
+        List<Task> fromRange = taskManager.getPrioritizedTasks(LocalDateTime.of(2009, 1, 1, 0, 0), null);
+        List<Task> page = taskManager.getPrioritizedTasks(false, 2, 3);
+
+        //check
+        assertEquals(tasksIds.subList(2, 5), range.stream().map(Task::getId).toList());
+        assertEquals(tasksIds.subList(8, 10), fromRange.stream().map(Task::getId).toList());
+        assertEquals(List.of(tasksIds.get(7), tasksIds.get(6), tasksIds.get(5)),
+                page.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void getPrioritizedPage_shouldWalkScheduleInBothDirections() {
+        // prepare
+        List<Long> tasksIds = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            tasksIds.add(taskManager.create(new Task("Приготовить завтрак", "Сварить макароны и пожарить котлету",
+                    TaskStatus.NEW, LocalDateTime.of(2000 + i, 1, 1, 1, 1), Duration.ofMinutes(15))));
+        }
+
+        //do
+        TaskPage first = taskManager.getPrioritizedPage(null, 2, true);
+        TaskPage second = taskManager.getPrioritizedPage(first.getNextCursor(), 2, true);
+        TaskPage third = taskManager.getPrioritizedPage(second.getNextCursor(), 2, true);
+        TaskPage back = taskManager.getPrioritizedPage(third.getPreviousCursor(), 2, false);
+
+        //check
+        assertEquals(tasksIds.subList(0, 2), first.getTasks().stream().map(Task::getId).toList());
+        assertEquals(tasksIds.subList(2, 4), second.getTasks().stream().map(Task::getId).toList());
+        assertEquals(tasksIds.subList(4, 5), third.getTasks().stream().map(Task::getId).toList());
+        assertNull(third.getNextCursor());
+        assertEquals(List.of(tasksIds.get(3), tasksIds.get(2)), back.getTasks().stream().map(Task::getId).toList());
+        assertThrows(TaskValidationException.class, () -> taskManager.getPrioritizedPage("не курсор", 2, true));
+    }
+
     @Test
     void updateEpicStatus_shouldUpdateEpicStatusForNew() {
         // prepare
@@ -743,6 +791,155 @@ abstract class TaskManagerTest<T extends TaskManager> {
     }
 
 
+    @Test
+    void termIntercept_shouldAllowUpdateTaskInItsOwnTerm() {
+        // prepare
+        Task task = new Task("Приготовить завтрак", "Сварить макароны и пожарить котлету",
+                TaskStatus.NEW, LocalDateTime.of(2000, 1, 1, 1, 0),
+                Duration.ofMinutes(100));
+        final Long savedTaskId = taskManager.create(task);
+        Task updatedTask = new Task(savedTaskId, "Приготовить легкий завтрак", "Сварить кашу",
+                TaskStatus.IN_PROGRESS, LocalDateTime.of(2000, 1, 1, 1, 30), Duration.ofMinutes(100));
+
+        // do
+        boolean isUpdated = taskManager.update(updatedTask);
+
+        // check
+        Assertions.assertTrue(isUpdated);
+        Assertions.assertDoesNotThrow(() -> taskManager.create(new Task("Приготовить обед", "Сварить суп",
+                TaskStatus.NEW, LocalDateTime.of(2000, 1, 1, 1, 0), Duration.ofMinutes(30))));
+        assertThrows(TaskValidationException.class, () -> taskManager.create(new Task("Приготовить ужин",
+                "Пожарить котлету", TaskStatus.NEW, LocalDateTime.of(2000, 1, 1, 2, 0),
+                Duration.ofMinutes(30))));
+    }
+
+    @Test
+    void findFreeSlot_shouldReturnEarliestWindowBetweenTasks() {
+        // prepare
+        taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                LocalDateTime.of(2000, 1, 1, 9, 0), Duration.ofMinutes(60)));
+        taskManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW,
+                LocalDateTime.of(2000, 1, 1, 10, 30), Duration.ofMinutes(60)));
+        taskManager.create(new Task("Приготовить ужин", "Пожарить котлету", TaskStatus.NEW,
+                LocalDateTime.of(2000, 1, 1, 11, 45), Duration.ofMinutes(60)));
+
+        // do
+        LocalDateTime freeSlot = taskManager.findFreeSlot(LocalDateTime.of(2000, 1, 1, 9, 15),
+                Duration.ofMinutes(30));
+        List<LocalDateTime> freeSlots = taskManager.findFreeSlots(LocalDateTime.of(2000, 1, 1, 9, 15),
+                Duration.ofMinutes(45), 2);
+
+        // check
+        assertEquals(LocalDateTime.of(2000, 1, 1, 10, 0), freeSlot);
+        assertEquals(List.of(LocalDateTime.of(2000, 1, 1, 12, 45), LocalDateTime.of(2000, 1, 1, 13, 30)),
+                freeSlots);
+        assertDoesNotThrow(() -> taskManager.create(new Task("Перекус", "Съесть яблоко", TaskStatus.NEW,
+                freeSlot, Duration.ofMinutes(30))));
+    }
+
+    @Test
+    void findFreeSlot_shouldReturnFromWhenScheduleIsEmpty() {
+        // do
+        LocalDateTime freeSlot = taskManager.findFreeSlot(LocalDateTime.of(2000, 1, 1, 9, 0),
+                Duration.ofMinutes(30));
+
+        // check
+        assertEquals(LocalDateTime.of(2000, 1, 1, 9, 0), freeSlot);
+        assertThrows(TaskValidationException.class, () ->
+                taskManager.findFreeSlot(LocalDateTime.of(2000, 1, 1, 9, 0), Duration.ofMinutes(-1)));
+    }
+
+    @Test
+    void getPrioritizedTasks_shouldKeepTasksWithEqualStartTime() {
+        // prepare
+        Epic epic = new Epic("Испечь торт", "Испечь торт Наполеон");
+        final Long savedEpicId = taskManager.create(epic);
+        final Long savedSubTask1Id = taskManager.create(new SubTask(savedEpicId, "Найти рецепт1",
+                "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                LocalDateTime.of(2010, 1, 1, 1, 0), Duration.ofMinutes(0)));
+        final Long savedSubTask2Id = taskManager.create(new SubTask(savedEpicId, "Найти рецепт2",
+                "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                LocalDateTime.of(2010, 1, 1, 1, 0), Duration.ofMinutes(30)));
+
+        // do
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks(true);
+
+        // check
+        assertEquals(List.of(savedSubTask1Id, savedSubTask2Id), prioritizedTasks.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void update_shouldMoveTaskInPrioritizedTasksWithoutStaleEntries() {
+        // prepare
+        List<Long> tasksIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            tasksIds.add(taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                    LocalDateTime.of(2000 + i, 1, 1, 1, 1), Duration.ofMinutes(15))));
+        }
+
+        // do
+        taskManager.update(new Task(tasksIds.get(0), "Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                LocalDateTime.of(2010, 1, 1, 1, 1), Duration.ofMinutes(15)));
+        taskManager.update(new Task(tasksIds.get(1), "Приготовить завтрак", "Сварить кашу", TaskStatus.NEW));
+        taskManager.create(new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW,
+                LocalDateTime.of(2001, 1, 1, 1, 1), Duration.ofMinutes(15)));
+
+        // check
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks(true);
+        assertEquals(3, prioritizedTasks.size());
+        assertEquals(tasksIds.get(0), prioritizedTasks.get(2).getId());
+        assertEquals(tasksIds.get(2), prioritizedTasks.get(1).getId());
+    }
+
+    @Test
+    void createAll_shouldCreateWholeBatchWhenNoConflicts() {
+        // prepare
+        Epic epic = new Epic(100L, "Испечь торт", "Испечь торт Наполеон");
+        List<Task> batch = List.of(
+                new SubTask(100L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW,
+                        LocalDateTime.of(2000, 1, 1, 10, 0), Duration.ofMinutes(30)),
+                new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                        LocalDateTime.of(2000, 1, 1, 9, 0), Duration.ofMinutes(60)),
+                epic);
+
+        // do
+        BatchResult result = taskManager.createAll(batch);
+
+        // check
+        assertTrue(result.isCommitted());
+        assertEquals(3, result.getIds().size());
+        assertEquals(List.of(result.getIds().get(0)), taskManager.getEpic(100L).getSubTaskIds());
+        assertEquals(2, taskManager.getPrioritizedTasks(true).size());
+    }
+
+    @Test
+    void createAll_shouldReportAllConflictsAndCreateNothing() {
+        // prepare
+        final Long savedTaskId = taskManager.create(new Task("Приготовить завтрак", "Сварить кашу", TaskStatus.NEW,
+                LocalDateTime.of(2000, 1, 1, 9, 0), Duration.ofMinutes(60)));
+        List<Task> batch = List.of(
+                new Task("Приготовить обед", "Сварить суп", TaskStatus.NEW,
+                        LocalDateTime.of(2000, 1, 1, 9, 30), Duration.ofMinutes(60)),
+                new Task("Приготовить ужин", "Пожарить котлету", TaskStatus.NEW,
+                        LocalDateTime.of(2000, 1, 1, 12, 0), Duration.ofMinutes(60)),
+                new Task("Перекус", "Съесть яблоко", TaskStatus.NEW,
+                        LocalDateTime.of(2000, 1, 1, 12, 30), Duration.ofMinutes(10)),
+                new SubTask(404L, "Найти рецепт", "Выполнить поиск видео рецепта", TaskStatus.NEW));
+
+        // do
+        BatchResult result = taskManager.createAll(batch);
+
+        // check
+        assertFalse(result.isCommitted());
+        assertTrue(result.getIds().isEmpty());
+        assertEquals(3, result.getConflicts().size());
+        assertEquals(savedTaskId, result.getConflicts().stream()
+                .filter(conflict -> conflict.getTask() == batch.get(0))
+                .findFirst().orElseThrow().getConflictingTask().getId());
+        assertEquals(1, taskManager.getPrioritizedTasks(true).size());
+        assertEquals(1, taskManager.getAllTasksText().size());
+    }
+
     @Test
     void testEpicInEpic() {
         /*
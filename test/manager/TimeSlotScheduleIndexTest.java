@@ -0,0 +1,98 @@
+package manager;
+
+import enums.TaskStatus;
+import models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSlotScheduleIndexTest {
+    TimeSlotScheduleIndex timeSlotIndex;
+
+    @BeforeEach
+    void beforeEachTest() {
+        timeSlotIndex = new TimeSlotScheduleIndex(Duration.ofMinutes(15));
+    }
+
+    private static Task task(long id, LocalDateTime startTime, long minutes) {
+        return new Task(id, "Задача " + id, "Описание", TaskStatus.NEW, startTime, Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    void findIntercept_shouldCheckNotAlignedTermsExactly() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 5);
+        timeSlotIndex.put(task(1L, start, 20));
+
+        // do // check
+        assertNull(timeSlotIndex.findIntercept(start.plusMinutes(20), start.plusMinutes(30), t -> false));
+        assertNull(timeSlotIndex.findIntercept(start.minusMinutes(5), start, t -> false));
+        assertEquals(1L, timeSlotIndex.findIntercept(start.plusMinutes(19), start.plusMinutes(30), t -> false).getId());
+    }
+
+    @Test
+    void remove_shouldFreeSlotsButKeepSharedSlotsOfNeighbours() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 0);
+        timeSlotIndex.put(task(1L, start, 20));
+        timeSlotIndex.put(task(2L, start.plusMinutes(20), 20));
+
+        // do
+        timeSlotIndex.remove(1L);
+
+        // check
+        assertNull(timeSlotIndex.findIntercept(start, start.plusMinutes(20), t -> false));
+        assertEquals(2L, timeSlotIndex.findIntercept(start.plusMinutes(25), start.plusMinutes(26), t -> false).getId());
+        assertEquals(1, timeSlotIndex.size());
+    }
+
+    @Test
+    void put_shouldGrowHorizonInBothDirections() {
+        // prepare
+        LocalDateTime start = LocalDateTime.of(2024, 10, 21, 19, 0);
+        timeSlotIndex.put(task(1L, start, 60));
+
+        // do
+        timeSlotIndex.put(task(2L, start.minusYears(3), 60));
+        timeSlotIndex.put(task(3L, start.plusYears(3), 60));
+
+        // check
+        assertEquals(1L, timeSlotIndex.findIntercept(start, start.plusMinutes(1), t -> false).getId());
+        assertEquals(2L, timeSlotIndex.findIntercept(start.minusYears(3), start.minusYears(3).plusMinutes(1),
+                t -> false).getId());
+        assertEquals(3L, timeSlotIndex.findIntercept(start.plusYears(3), start.plusYears(3).plusMinutes(1),
+                t -> false).getId());
+    }
+
+    @Test
+    void findIntercepts_shouldMatchIntervalTree() {
+        // prepare
+        Random random = new Random(7);
+        IntervalTree intervalTree = new IntervalTree();
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 1000; id++) {
+            Task task = task(id, origin.plusMinutes(random.nextInt(20_000)), random.nextInt(90));
+            intervalTree.put(task);
+            timeSlotIndex.put(task);
+        }
+        for (long id = 1; id <= 1000; id += 2) {
+            intervalTree.remove(id);
+            timeSlotIndex.remove(id);
+        }
+
+        // do // check
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime start = origin.plusMinutes(random.nextInt(20_000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(60));
+            List<Long> expected = intervalTree.findIntercepts(start, end).stream().map(Task::getId).toList();
+            List<Long> actual = timeSlotIndex.findIntercepts(start, end).stream().map(Task::getId).toList();
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -18,4 +18,18 @@ class TaskTest {
         assertEquals(task1, task2);
         assertNotEquals(task2, task3);
     }
+
+    @Test
+    void setDescription_shouldReplaceDescriptionSource() {
+        // prepare
+        Task task = new Task(1L, "Приготовить завтрак", "Сварить кашу", TaskStatus.NEW);
+        task.setDescriptionSource(() -> "Пожарить яичницу");
+
+        // do
+        task.setDescription(null);
+
+        //check
+        assertNull(task.getDescription());
+        assertNull(task.getDescriptionSource());
+    }
 }
\ No newline at end of file